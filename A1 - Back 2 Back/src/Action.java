@@ -19,6 +19,22 @@ public class Action {
 		this.sideFront = sideFront;
 	}
 	
+	public Piece getPiece() {
+		return piece;
+	}
+	
+	public int getX() {
+		return x;
+	}
+	
+	public int getY() {
+		return y;
+	}
+	
+	public boolean isSideFront() {
+		return sideFront;
+	}
+	
 	@Override
 	public String toString() {
 		String side = sideFront ? "front" : "back";
@@ -0,0 +1,110 @@
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The <code>BatchSolver</code> class solves every puzzle in the default PuzzleCatalog on a pool
+ * of threads, and writes a CSV report with one line per puzzle: the solve time, nodes expanded,
+ * peak frontier size, solution length, nodes generated and duplicates pruned.
+ * <br>
+ * Arguments, all optional: the number of threads (default: one per processor), the report file
+ * (default: print to the console), and the algorithm (A_STAR, IDA_STAR or EXACT_COVER, default A_STAR).
+ *
+ * @author Jordan Turley
+ * @author Will Edwards
+ */
+public class BatchSolver {
+	public static final String REPORT_HEADER = "puzzle,solved,solve_millis,nodes_expanded,peak_frontier,solution_length,nodes_generated,duplicates_pruned";
+
+	public static void main(String[] args) throws FileNotFoundException, InterruptedException {
+		int threads = Runtime.getRuntime().availableProcessors();
+		if (args.length > 0) {
+			threads = Integer.parseInt(args[0]);
+		}
+		PrintStream out = System.out;
+		if (args.length > 1) {
+			out = new PrintStream(args[1]);
+		}
+		SearchOptions.Algorithm algorithm = SearchOptions.Algorithm.A_STAR;
+		if (args.length > 2) {
+			algorithm = SearchOptions.Algorithm.valueOf(args[2]);
+		}
+
+		long beforeTime = System.currentTimeMillis();
+		List<String> lines = solveAll(PuzzleCatalog.getDefault().getPuzzleNumbers(), threads, algorithm);
+		long afterTime = System.currentTimeMillis();
+
+		out.println(REPORT_HEADER);
+		for (String line : lines) {
+			out.println(line);
+		}
+		if (out != System.out) {
+			out.close();
+		}
+		System.err.println("Solved " + lines.size() + " puzzles in " + (afterTime - beforeTime) / 1000.0 + " seconds");
+	}
+
+	/**
+	 * Solves puzzles from the default PuzzleCatalog on a pool of threads
+	 * @param states The puzzle numbers to solve
+	 * @param threads The number of threads to solve on
+	 * @param algorithm The algorithm to solve each puzzle with
+	 * @return One report line for each state, in the same order as the states
+	 * @throws InterruptedException If this thread is interrupted while waiting for the solves
+	 */
+	public static List<String> solveAll(int[] states, int threads, final SearchOptions.Algorithm algorithm)
+			throws InterruptedException {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		ArrayList<Future<String>> results = new ArrayList<Future<String>>();
+		for (final int state : states) {
+			results.add(pool.submit(new Callable<String>() {
+				public String call() {
+					return solveOne(state, algorithm);
+				}
+			}));
+		}
+		pool.shutdown();
+
+		ArrayList<String> lines = new ArrayList<String>();
+		for (Future<String> result : results) {
+			try {
+				lines.add(result.get());
+			} catch (ExecutionException e) {
+				pool.shutdownNow();
+				throw new IllegalStateException("A puzzle could not be solved.", e.getCause());
+			}
+		}
+		return lines;
+	}
+
+	/**
+	 * Solves one initial state on its own Board
+	 * @param state The initial state number
+	 * @param algorithm The algorithm to solve it with
+	 * @return The report line for the state
+	 */
+	private static String solveOne(int state, SearchOptions.Algorithm algorithm) {
+		Board board = new Board();
+		board.setInitialState(state);
+
+		SearchStats stats = new SearchStats();
+		SearchOptions options = new SearchOptions();
+		options.setAlgorithm(algorithm);
+		options.setStats(stats);
+
+		long beforeTime = System.nanoTime();
+		List<Action> actions = board.solve(options);
+		long afterTime = System.nanoTime();
+
+		boolean solved = actions != null;
+		return state + "," + solved + "," + (afterTime - beforeTime) / 1000000 + "," + stats.getNodesExpanded() + ","
+				+ stats.getPeakFrontierSize() + "," + (solved ? actions.size() : 0) + "," + stats.getNodesGenerated() + ","
+				+ stats.getDuplicatesPruned();
+	}
+}
@@ -1,6 +1,11 @@
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
-import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeoutException;
 
 /**
  * The <code>Board</code> class represents the actual game board in Back 2 Back that you put Pieces on.
@@ -11,26 +16,118 @@ import java.util.PriorityQueue;
 public class Board implements Cloneable {
 	public static final int WIDTH = 6;
 	public static final int HEIGHT = 5;
+	public static final int NUM_CELLS = WIDTH * HEIGHT;
+	
+	/**
+	 * Mask with one bit set for every cell of the board
+	 */
+	public static final long FULL_MASK = (1L << NUM_CELLS) - 1;
+	
+	//Heuristic costs of a cell empty on both sides and a cell empty on one side
+	private static final double EMPTY_CELL_COST = 2.0;
+	private static final double HALF_CELL_COST = 1.5;
+	private static final double EMPTY_HEURISTIC = EMPTY_CELL_COST * NUM_CELLS;
+	
+	//Each possible row of a mask, flipped horizontally
+	private static final int ROW_MASK = (1 << WIDTH) - 1;
+	private static final int[] ROW_MIRRORS = new int[1 << WIDTH];
+	static {
+		for (int row = 0; row <= ROW_MASK; row++) {
+			for (int x = 0; x < WIDTH; x++) {
+				if ((row & (1 << x)) != 0) {
+					ROW_MIRRORS[row] |= 1 << (WIDTH - 1 - x);
+				}
+			}
+		}
+	}
+	
+	//For each piece, the pieces before it with the same shape, which are placed first
+	private static final int[] EARLIER_SAME_SHAPE = new int[Piece.NUM_PIECES];
+	static {
+		for (int i1 = 0; i1 < Piece.NUM_PIECES; i1++) {
+			for (int i2 = 0; i2 < i1; i2++) {
+				if (Piece.ALL_PIECES[i2].getFirstOfShape() == Piece.ALL_PIECES[i1].getFirstOfShape()) {
+					EARLIER_SAME_SHAPE[i1] |= 1 << i2;
+				}
+			}
+		}
+	}
+	
+	//Status codes returned by canPlace and tryPlace
+	public static final int PLACE_OK = 0;
+	public static final int PLACE_OUT_OF_BOUNDS = 1;
+	public static final int PLACE_ALREADY_PLACED = 2;
+	public static final int PLACE_OFF_EDGE = 3;
+	public static final int PLACE_OVERLAP = 4;
 	
 	private boolean sideFront; //True if front side, false if back side
 	
-	private BoardCell[][] boardArr;
+	//Occupancy of each side, one bit per cell. Bits are indexed from the front side,
+	//so flipping the board does not change them.
+	private long frontMask;
+	private long backMask;
 	
-	private Piece[] pieces;
+	//Colors are only needed to print the board, indexed the same way as the masks
+	private char[] frontColors;
+	private char[] backColors;
+	
+	//One bit for each piece in Piece.ALL_PIECES that has been placed
+	private int placedPieces;
+	
+	//Zobrist hash of the masks and placed pieces, kept up to date as pieces are placed
+	private long zobristKey;
+	//Zobrist hash of the board turned around, see getCanonicalKey
+	private long mirrorKey;
+	
+	//Value of heuristic(), kept up to date from the cells each placement touches
+	private double heuristicValue;
+	
+	//Placements put on the board with place, most recent last, so undo can take them back off
+	private Placement[] moveStack;
+	private int moveCount;
 	
 	/**
 	 * Creates a new empty Board object, of size WIDTH and HEIGHT.
 	 */
 	public Board() {
-		boardArr = new BoardCell[HEIGHT][WIDTH];
-		for (int y = 0; y < HEIGHT; y++) {
-			for (int x = 0; x < WIDTH; x++) {
-				boardArr[y][x] = new BoardCell();
-			}
-		}
+		frontMask = 0;
+		backMask = 0;
+		frontColors = new char[NUM_CELLS];
+		backColors = new char[NUM_CELLS];
+		Arrays.fill(frontColors, ' ');
+		Arrays.fill(backColors, ' ');
 		sideFront = true;
 		
-		pieces = Piece.ALL_PIECES.clone();
+		placedPieces = 0;
+		zobristKey = 0;
+		mirrorKey = 0;
+		heuristicValue = EMPTY_HEURISTIC;
+		moveStack = new Placement[Piece.NUM_PIECES];
+		moveCount = 0;
+	}
+	
+	/**
+	 * Gets the bit index of a cell, as seen from the front of the board
+	 * @param x The x location of the cell, from the front
+	 * @param y The y location of the cell
+	 * @return The index of the bit for this cell in the front and back masks
+	 */
+	public static int cellIndex(int x, int y) {
+		return y * WIDTH + x;
+	}
+	
+	/**
+	 * Flips a mask of cells horizontally, so each row is reversed
+	 * @param mask A mask of cells
+	 * @return The mask with each cell moved from x to WIDTH - 1 - x
+	 */
+	public static long mirrorMask(long mask) {
+		long mirrored = 0;
+		for (int y = 0; y < HEIGHT; y++) {
+			int row = (int) (mask >>> (y * WIDTH)) & ROW_MASK;
+			mirrored |= (long) ROW_MIRRORS[row] << (y * WIDTH);
+		}
+		return mirrored;
 	}
 	
 	/**
@@ -38,16 +135,15 @@ public class Board implements Cloneable {
 	 */
 	public void switchSide() {
 		sideFront = !sideFront;
-		
-		//horizontally flip boardArr array
-		BoardCell[][] newBoardArr = new BoardCell[HEIGHT][WIDTH];
-		for (int y = 0; y < HEIGHT; y++) {
-			for (int x = 0; x < WIDTH; x++) {
-				BoardCell cell = boardArr[y][x];
-				newBoardArr[y][WIDTH - 1 - x] = cell;
-			}
-		}
-		boardArr = newBoardArr;
+	}
+	
+	/**
+	 * Converts an x location on the side currently being viewed to an x location from the front
+	 * @param x The x location on the current side
+	 * @return The x location from the front of the board
+	 */
+	private int frontX(int x) {
+		return sideFront ? x : WIDTH - 1 - x;
 	}
 	
 	/**
@@ -60,92 +156,313 @@ public class Board implements Cloneable {
 	 * Details for the reason this was thrown can be found in the exception's message.
 	 */
 	public void addPiece(Piece piece, int xLoc, int yLoc) throws IllegalArgumentException {
+		int status = tryPlace(piece, xLoc, yLoc);
+		if (status != PLACE_OK) {
+			throw new IllegalArgumentException(getPlaceMessage(status));
+		}
+	}
+	
+	/**
+	 * Gets the message to show the user when a piece could not be placed
+	 * @param status A status code returned by canPlace or tryPlace
+	 * @return The reason the piece could not be placed
+	 */
+	public static String getPlaceMessage(int status) {
+		switch (status) {
+		case PLACE_OK:
+			return "The piece can be placed.";
+		case PLACE_OUT_OF_BOUNDS:
+			return "The x-y loc was out of bounds of the board.";
+		case PLACE_ALREADY_PLACED:
+			return "That piece has already been placed.";
+		case PLACE_OFF_EDGE:
+			return "The piece cannot hang off the side of the board.";
+		case PLACE_OVERLAP:
+			return "The piece cannot overlap with another piece on the same side.";
+		default:
+			throw new IllegalArgumentException("The status code was not recognized.");
+		}
+	}
+	
+	/**
+	 * Checks if a game piece can be added to the board at the x-y location, without adding it
+	 * @param piece The piece to add to the board
+	 * @param xLoc The x location to add the piece
+	 * @param yLoc The y location to add the piece
+	 * @return PLACE_OK if it can be placed, or one of the other PLACE_ codes for why it cannot
+	 */
+	public int canPlace(Piece piece, int xLoc, int yLoc) {
 		//Make sure the x-y location is on the board
 		if (xLoc < 0 || yLoc < 0 || xLoc >= WIDTH || yLoc >= HEIGHT) {
-			throw new IllegalArgumentException("The x-y loc was out of bounds of the board.");
+			return PLACE_OUT_OF_BOUNDS;
 		}
 		
-		if (piece.isPlaced()) {
-			throw new IllegalArgumentException("That piece has already been placed.");
+		if (isPlaced(piece.getIndex())) {
+			return PLACE_ALREADY_PLACED;
 		}
 		
 		//Make sure the piece does not hang off the side of the board
 		int[][] pieceLayout = piece.getLayout();
-		int pieceHeight = pieceLayout.length;
-		int pieceWidth = pieceLayout[0].length;
-		if (xLoc + pieceWidth > WIDTH || yLoc + pieceHeight > HEIGHT) {
-			throw new IllegalArgumentException("The piece cannot hang off the side of the board.");
+		if (xLoc + pieceLayout[0].length > WIDTH || yLoc + pieceLayout.length > HEIGHT) {
+			return PLACE_OFF_EDGE;
 		}
 		
 		//Check if it can be placed there
-		for (int y = 0; y < pieceHeight; y++) {
-			for (int x = 0; x < pieceWidth; x++) {
-				int pieceCell = pieceLayout[y][x];
-				BoardCell boardCell = boardArr[yLoc + y][xLoc + x];
-				if (!checkBoardCell(pieceCell, boardCell)) {
-					throw new IllegalArgumentException("The piece cannot overlap with another piece on the same side.");
-				}
-			}
+		if (!checkBoardCells(pegMask(pieceLayout, 1, xLoc, yLoc), pegMask(pieceLayout, 2, xLoc, yLoc))) {
+			return PLACE_OVERLAP;
+		}
+		return PLACE_OK;
+	}
+	
+	/**
+	 * Adds a game piece to the board at the x-y location if it can be placed there
+	 * @param piece The piece to add to the board
+	 * @param xLoc The x location to add the piece
+	 * @param yLoc The y location to add the piece
+	 * @return PLACE_OK if it was placed, or one of the other PLACE_ codes for why it was not
+	 */
+	public int tryPlace(Piece piece, int xLoc, int yLoc) {
+		int status = canPlace(piece, xLoc, yLoc);
+		if (status != PLACE_OK) {
+			return status;
 		}
 		
 		//Then actually place it there
-		for (int y = 0; y < pieceHeight; y++) {
-			for (int x = 0; x < pieceWidth; x++) {
-				int pieceCell = pieceLayout[y][x];
-				BoardCell boardCell = boardArr[yLoc + y][xLoc + x];
-				setBoardCell(pieceCell, piece.getColor(), boardCell);
-			}
-		}
+		int[][] pieceLayout = piece.getLayout();
+		setBoardCells(pegMask(pieceLayout, 1, xLoc, yLoc), pegMask(pieceLayout, 2, xLoc, yLoc), piece.getColor());
 		
 		//Mark the piece as being placed so it can't be used again
-		piece.place();
+		placedPieces |= 1 << piece.getIndex();
+		zobristKey ^= Zobrist.hashPieces(1 << piece.getIndex());
+		mirrorKey ^= Zobrist.hashPieces(1 << piece.getIndex());
+		return PLACE_OK;
+	}
+	
+	/**
+	 * Checks if a placement from the placement catalog can be put on the board, without putting it there
+	 * @param placement The placement to check
+	 * @return PLACE_OK if it can be placed, PLACE_ALREADY_PLACED or PLACE_OVERLAP if not
+	 */
+	public int canPlace(Placement placement) {
+		if (isPlaced(placement.getPieceIndex())) {
+			return PLACE_ALREADY_PLACED;
+		}
+		if (!placement.fits(frontMask, backMask)) {
+			return PLACE_OVERLAP;
+		}
+		return PLACE_OK;
+	}
+	
+	/**
+	 * Puts a placement from the placement catalog on the board if it can be placed there.
+	 * The board is turned to the side the piece is placed from.
+	 * @param placement The placement to put on the board
+	 * @return PLACE_OK if it was placed, PLACE_ALREADY_PLACED or PLACE_OVERLAP if not
+	 */
+	public int tryPlace(Placement placement) {
+		int status = canPlace(placement);
+		if (status == PLACE_OK) {
+			applyPlacement(placement);
+		}
+		return status;
+	}
+	
+	/**
+	 * Puts a placement on the board like tryPlace, and pushes it on the move stack so it can be undone
+	 * @param placement The placement to put on the board
+	 * @return PLACE_OK if it was placed, PLACE_ALREADY_PLACED or PLACE_OVERLAP if not
+	 */
+	public int place(Placement placement) {
+		int status = tryPlace(placement);
+		if (status == PLACE_OK) {
+			moveStack[moveCount++] = placement;
+		}
+		return status;
+	}
+	
+	/**
+	 * Takes the last placement made with place back off the board
+	 * @return The placement that was taken off
+	 * @throws IllegalStateException If there are no placements on the move stack
+	 */
+	public Placement undo() throws IllegalStateException {
+		if (moveCount == 0) {
+			throw new IllegalStateException("There are no moves to undo.");
+		}
+		Placement placement = moveStack[--moveCount];
+		moveStack[moveCount] = null;
+		removePlacement(placement);
+		return placement;
+	}
+	
+	/**
+	 * @return The number of placements on the move stack
+	 */
+	public int getMoveCount() {
+		return moveCount;
+	}
+	
+	/**
+	 * @param index The position on the move stack, 0 for the first placement made
+	 * @return The placement at that position
+	 */
+	public Placement getMove(int index) {
+		if (index < 0 || index >= moveCount) {
+			throw new IndexOutOfBoundsException("There is no move " + index + " on the stack.");
+		}
+		return moveStack[index];
+	}
+	
+	/**
+	 * Loads the snapshot of a search node into this board, and empties the move stack.
+	 * Only the masks are restored, not the colors, so this is only for the working
+	 * board of a search and not for boards shown to the user.
+	 * @param node The node to load
+	 */
+	void restore(Node node) {
+		restore(node.getFrontMask(), node.getBackMask(), node.getPlacedPieces(), node.getZobristKey(),
+				node.getMirrorKey(), node.getPlacement());
+	}
+	
+	/**
+	 * Loads a node from a NodeArena into this board, like restore(Node). The arena does not
+	 * store the Zobrist hashes, so they are worked out again from the masks.
+	 * @param arena The arena the node is in
+	 * @param index The index of the node
+	 */
+	void restore(NodeArena arena, int index) {
+		long front = arena.getFrontMask(index);
+		long back = arena.getBackMask(index);
+		int placed = arena.getPlacedPieces(index);
+		long pieceKey = Zobrist.hashPieces(placed);
+		restore(front, back, placed, Zobrist.hashCells(front, back) ^ pieceKey,
+				Zobrist.hashCells(mirrorMask(back), mirrorMask(front)) ^ pieceKey, arena.getPlacement(index));
+	}
+	
+	/**
+	 * Loads a search state into this board, and empties the move stack
+	 * @param front The cells covered on the front
+	 * @param back The cells covered on the back
+	 * @param placed One bit for each piece that has been placed
+	 * @param zobrist The Zobrist hash of the state
+	 * @param mirror The Zobrist hash of the state turned around
+	 * @param placement The last placement, to turn the board to its side, or null
+	 */
+	private void restore(long front, long back, int placed, long zobrist, long mirror, Placement placement) {
+		frontMask = front;
+		backMask = back;
+		placedPieces = placed;
+		zobristKey = zobrist;
+		mirrorKey = mirror;
+		heuristicValue = cellsHeuristic(FULL_MASK);
+		if (placement != null) {
+			sideFront = placement.isSideFront();
+		}
+		Arrays.fill(moveStack, 0, moveCount, null);
+		moveCount = 0;
+	}
+	
+	/**
+	 * Takes a placement back off the board. It must be the placement that put those pegs there,
+	 * so this is used to undo tryPlace(Placement) while searching.
+	 * @param placement The placement to take off the board
+	 */
+	public void removePlacement(Placement placement) {
+		long front = placement.getFrontMask();
+		long back = placement.getBackMask();
+		long touched = front | back;
+		heuristicValue -= cellsHeuristic(touched);
+		frontMask &= ~front;
+		backMask &= ~back;
+		heuristicValue += cellsHeuristic(touched);
+		placedPieces &= ~(1 << placement.getPieceIndex());
+		zobristKey ^= placement.getZobristKey();
+		mirrorKey ^= placement.getMirrorKey();
 		
+		while (front != 0) {
+			frontColors[Long.numberOfTrailingZeros(front)] = ' ';
+			front &= front - 1;
+		}
+		while (back != 0) {
+			backColors[Long.numberOfTrailingZeros(back)] = ' ';
+			back &= back - 1;
+		}
 	}
 	
 	/**
-	 * Checks if one cell of a piece can be placed on a cell of the board
-	 * @param pieceCell 0, 1, or 2 for the depth of the cell of the piece
-	 * @param boardCell The board cell you are trying to place the piece on
-	 * @return True or false if it can or cannot be placed there.
+	 * Builds a mask of the cells covered by pegs of one depth, if the piece were placed at the x-y location
+	 * @param pieceLayout The layout of the piece
+	 * @param depth 1 or 2 for the depth of the pegs
+	 * @param xLoc The x location of the piece, on the current side
+	 * @param yLoc The y location of the piece
+	 * @return A mask of the covered cells, indexed from the front
 	 */
-	private boolean checkBoardCell(int pieceCell, BoardCell boardCell) {
-		if (pieceCell == 2) {
-			if (boardCell.getFront() || boardCell.getBack()) {
-				return false;
-			}
-		} else if (pieceCell == 1) {
-			if (sideFront) {
-				if (boardCell.getFront()) {
-					return false;
-				}
-			} else {
-				if (boardCell.getBack()) {
-					return false;
+	private long pegMask(int[][] pieceLayout, int depth, int xLoc, int yLoc) {
+		long mask = 0;
+		for (int y = 0; y < pieceLayout.length; y++) {
+			for (int x = 0; x < pieceLayout[0].length; x++) {
+				if (pieceLayout[y][x] == depth) {
+					mask |= 1L << cellIndex(frontX(xLoc + x), yLoc + y);
 				}
 			}
 		}
-		return true;
+		return mask;
+	}
+	
+	/**
+	 * Puts a piece from the placement catalog on the board, once it has already been checked if it fits.
+	 * The board is turned to the side the piece is placed from.
+	 * @param placement The placement to put on the board
+	 */
+	private void applyPlacement(Placement placement) {
+		sideFront = placement.isSideFront();
+		long front = placement.getFrontMask();
+		long back = placement.getBackMask();
+		setBoardCells(sideFront ? front & ~back : back & ~front, front & back, placement.getPiece().getColor());
+		placedPieces |= 1 << placement.getPieceIndex();
+		zobristKey ^= Zobrist.hashPieces(1 << placement.getPieceIndex());
+		mirrorKey ^= Zobrist.hashPieces(1 << placement.getPieceIndex());
+	}
+	
+	/**
+	 * Checks if the pegs of a piece can be placed on the board
+	 * @param oneDeep Mask of the cells covered by pegs 1 deep, on the current side
+	 * @param twoDeep Mask of the cells covered by pegs 2 deep
+	 * @return True or false if it can or cannot be placed there.
+	 */
+	private boolean checkBoardCells(long oneDeep, long twoDeep) {
+		long sideMask = sideFront ? frontMask : backMask;
+		return (twoDeep & (frontMask | backMask)) == 0 && (oneDeep & sideMask) == 0;
 	}
 	
 	/**
-	 * Sets a piece cell at a board cell, once it has already been checked if it can be placed there.
-	 * @param pieceCell 0, 1, or 2 for the depth of the cell of the piece
+	 * Sets the pegs of a piece on the board, once it has already been checked if they can be placed there.
+	 * @param oneDeep Mask of the cells covered by pegs 1 deep, on the current side
+	 * @param twoDeep Mask of the cells covered by pegs 2 deep
 	 * @param pieceColor A char representing the color of the piece
-	 * @param boardCell The board cell you are trying to place the piece on
 	 */
-	private void setBoardCell(int pieceCell, char pieceColor, BoardCell boardCell){
-		if (pieceCell == 2) {
-			boardCell.setFront(true);
-			boardCell.setFrontColor(pieceColor);
-			boardCell.setBack(true);
-			boardCell.setBackColor(pieceColor);
-		} else if (pieceCell == 1) {
-			if (sideFront) {
-				boardCell.setFront(true);
-				boardCell.setFrontColor(pieceColor);
-			} else {
-				boardCell.setBack(true);
-				boardCell.setBackColor(pieceColor);
+	private void setBoardCells(long oneDeep, long twoDeep, char pieceColor) {
+		long front = twoDeep;
+		long back = twoDeep;
+		if (sideFront) {
+			front |= oneDeep;
+		} else {
+			back |= oneDeep;
+		}
+		long touched = front | back;
+		heuristicValue -= cellsHeuristic(touched);
+		frontMask |= front;
+		backMask |= back;
+		heuristicValue += cellsHeuristic(touched);
+		zobristKey ^= Zobrist.hashCells(front, back);
+		mirrorKey ^= Zobrist.hashCells(mirrorMask(back), mirrorMask(front));
+		
+		for (int i1 = 0; i1 < NUM_CELLS; i1++) {
+			if ((front & (1L << i1)) != 0) {
+				frontColors[i1] = pieceColor;
+			}
+			if ((back & (1L << i1)) != 0) {
+				backColors[i1] = pieceColor;
 			}
 		}
 	}
@@ -154,843 +471,664 @@ public class Board implements Cloneable {
 	 * Clears the board, sets all pieces to unplaced, and sets the side to the front of the board
 	 */
 	public void clearBoard() {
+		frontMask = 0;
+		backMask = 0;
+		frontColors = new char[NUM_CELLS];
+		backColors = new char[NUM_CELLS];
+		Arrays.fill(frontColors, ' ');
+		Arrays.fill(backColors, ' ');
+		placedPieces = 0;
+		zobristKey = 0;
+		mirrorKey = 0;
+		heuristicValue = EMPTY_HEURISTIC;
+		moveCount = 0;
+		sideFront = true;
+	}
+	
+	/**
+	 * Sets the initial state of the board, before it is solved, from the default PuzzleCatalog
+	 * @param state The initial state number from the game booklet, or another puzzle in the catalog
+	 * @throws IllegalArgumentException If the catalog has no puzzle with that number
+	 */
+	public void setInitialState(int state) throws IllegalArgumentException {
+		PuzzleCatalog.getDefault().setUp(this, state);
+	}
+	
+	/**
+	 * Builds the cells of the board as seen from the current side. The board is stored as
+	 * masks, so the returned array is a copy and changing it does not change the board.
+	 * @return A 2D array of the cells of the board
+	 */
+	public BoardCell[][] getBoardArr() {
+		BoardCell[][] boardArr = new BoardCell[HEIGHT][WIDTH];
 		for (int y = 0; y < HEIGHT; y++) {
 			for (int x = 0; x < WIDTH; x++) {
-				BoardCell cell = boardArr[y][x];
-				cell.setFront(false);
-				cell.setBack(false);
+				int i1 = cellIndex(frontX(x), y);
+				BoardCell cell = new BoardCell();
+				cell.setFront((frontMask & (1L << i1)) != 0);
+				cell.setFrontColor(frontColors[i1]);
+				cell.setBack((backMask & (1L << i1)) != 0);
+				cell.setBackColor(backColors[i1]);
+				boardArr[y][x] = cell;
 			}
 		}
-		for (Piece piece : pieces) {
-			piece.unplace();
+		return boardArr;
+	}
+	
+	public long getFrontMask() {
+		return frontMask;
+	}
+	
+	public long getBackMask() {
+		return backMask;
+	}
+	
+	/**
+	 * @return One bit for each piece in Piece.ALL_PIECES that has been placed
+	 */
+	public int getPlacedPieces() {
+		return placedPieces;
+	}
+	
+	/**
+	 * @return The Zobrist hash of the covered cells and placed pieces
+	 */
+	public long getZobristKey() {
+		return zobristKey;
+	}
+	
+	/**
+	 * @return The Zobrist hash of this board turned around, with the front and back swapped
+	 * and flipped horizontally
+	 */
+	public long getMirrorKey() {
+		return mirrorKey;
+	}
+	
+	/**
+	 * Gets a key that is the same for this board and for this board turned around. Turning the
+	 * board around swaps the front and back and flips them horizontally, and every placement has
+	 * a mirror from the other side, so both boards have the same solutions turned around.
+	 * @return The lower of the Zobrist hash and the mirror hash
+	 */
+	public long getCanonicalKey() {
+		return Math.min(zobristKey, mirrorKey);
+	}
+	
+	/**
+	 * @return True if turning the board around gives the same board, like the empty board
+	 */
+	public boolean isMirrorSymmetric() {
+		return frontMask == mirrorMask(backMask);
+	}
+	
+	/**
+	 * @return True if every cell is covered on both the front and the back
+	 */
+	public boolean isSolved() {
+		return frontMask == FULL_MASK && backMask == FULL_MASK;
+	}
+	
+	/**
+	 * @param pieceIndex The index of a piece in Piece.ALL_PIECES
+	 * @return True if that piece has been placed on this board
+	 */
+	public boolean isPlaced(int pieceIndex) {
+		return (placedPieces & (1 << pieceIndex)) != 0;
+	}
+	
+	public boolean getSide() {
+		return sideFront;
+	}
+	
+	/**
+	 * Solves the board in its current state using the A* algorithm
+	 * @return A List of Action objects to represent the moves to a solved board
+	 */
+	public List<Action> solve() {
+		return solve(new SearchOptions());
+	}
+	
+	/**
+	 * Solves the board in its current state, using the algorithm in the options
+	 * @param options The settings to use for the search
+	 * @return A List of Action objects to represent the moves to a solved board,
+	 * or null if there is no solution
+	 * @throws CancellationException If the control in the options stopped the search.
+	 * The enumerating searches do not check it.
+	 */
+	public List<Action> solve(SearchOptions options) throws CancellationException {
+		SolutionCache cache = options.getSolutionCache();
+		if (cache == null) {
+			return search(options);
 		}
-		sideFront = true;
+		List<Action> solution = cache.get(this);
+		if (solution == null) {
+			solution = search(options);
+			if (solution != null) {
+				//A failed write is counted by the cache, and the solution is still returned
+				cache.put(this, solution);
+			}
+		}
+		return solution;
 	}
 	
 	/**
-	 * Sets the initial state of the board, before it is solved 
-	 * @param state The initial state number from the game booklet. Must be between 1 and 60
+	 * Solves the board in its current state with the algorithm in the options, without the solution cache
 	 */
-	public void setInitialState(int state) {
-		clearBoard();
-		switch (state) {
-		//k = 9
-		case 1:
-			//Pink
-			pieces[0].rotate();
-			pieces[0].rotate();
-			addPiece(pieces[0], 0, 0);
-			
-			//Purple
-			pieces[7].rotate();
-			pieces[7].rotate();
-			addPiece(pieces[7], 3, 0);
-			
-			//Light Green
-			pieces[3].rotate();
-			pieces[3].rotate();
-			pieces[3].rotate();
-			addPiece(pieces[3], 1, 2);
-			
-			//Orange
-			addPiece(pieces[6], 3, 3);
-			
-			switchSide();
-			
-			//Dark Blue
-			pieces[2].rotate();
-			addPiece(pieces[2], 0, 1);
-			
-			//Yellow
-			pieces[5].rotate();
-			pieces[5].rotate();
-			pieces[5].rotate();
-			addPiece(pieces[5], 0, 2);
-			
-			//Teal
-			pieces[9].rotate();
-			addPiece(pieces[9], 2, 0);
-			
-			//Red
-			pieces[4].rotate();
-			pieces[4].rotate();
-			pieces[4].rotate();
-			addPiece(pieces[4], 3, 0);
-			
-			//Dark Green
-			pieces[8].rotate();
-			pieces[8].rotate();
-			pieces[8].rotate();
-			addPiece(pieces[8], 4, 1);
-			
-			break;
-			
-		//k = 8
-		case 2:
-			//Light Green
-			addPiece(pieces[3], 0, 0);
-			
-			//Red
-			pieces[4].rotate();
-			pieces[4].rotate();
-			addPiece(pieces[4], 0, 2);
-			
-			//Pink
-			pieces[0].rotate();
-			addPiece(pieces[0], 0, 3);
-			
-			//Orange
-			addPiece(pieces[6], 2, 2);
-			
-			//Teal
-			pieces[9].rotate();
-			addPiece(pieces[9], 5, 0);
-			
-			//Dark Blue
-			pieces[2].rotate();
-			pieces[2].rotate();
-			pieces[2].rotate();
-			addPiece(pieces[2], 4, 3);
-			
-			switchSide();
-			
-			//Purple
-			pieces[7].rotate();
-			addPiece(pieces[7], 2, 0);
-			
-			//Light Blue
-			pieces[10].rotate();
-			pieces[10].rotate();
-			pieces[10].rotate();
-			addPiece(pieces[10], 1, 2);
-			
-			break;
+	private List<Action> search(SearchOptions options) throws CancellationException {
+		if (options.getAlgorithm() == SearchOptions.Algorithm.IDA_STAR) {
+			return new IDAStarSearch(this, options).solve();
+		}
+		if (options.getAlgorithm() == SearchOptions.Algorithm.EXACT_COVER) {
+			return new ExactCoverSearch(this, options).solve();
+		}
+		if (options.getThreads() > 1) {
+			return new ParallelSearch(this, options).solve();
+		}
 		
-		//k = 9
-		case 3:
-			//Orange
-			pieces[6].rotate();
-			pieces[6].rotate();
-			pieces[6].rotate();
-			addPiece(pieces[6], 0, 0);
-			
-			//Dark Green
-			pieces[8].rotate();
-			addPiece(pieces[8], 2, 0);
-			
-			//Dark Blue
-			addPiece(pieces[2], 4, 0);
-			
-			//Pink
-			pieces[0].rotate();
-			pieces[0].rotate();
-			addPiece(pieces[0], 2, 3);
-			
-			//Light Blue
-			pieces[10].rotate();
-			pieces[10].rotate();
-			pieces[10].rotate();
-			addPiece(pieces[10], 4, 2);
-			
-			switchSide();
-			
-			//Light Green
-			addPiece(pieces[3], 2, 3);
-			
-			//Yellow
-			pieces[5].rotate();
-			pieces[5].rotate();
-			pieces[5].rotate();
-			addPiece(pieces[5], 0, 2);
-			
-			//Red
-			pieces[4].rotate();
-			addPiece(pieces[4], 5, 0);
-			
-			//Purple
-			addPiece(pieces[7], 2, 1);
-			
-			break;
-			
-		//k = 9
-		case 4:
-			//Pink
-			pieces[0].rotate();
-			addPiece(pieces[0], 0, 0);
-			
-			//Dark Blue
-			addPiece(pieces[2], 2, 0);
-			
-			//Pink
-			pieces[1].rotate();
-			addPiece(pieces[1], 4, 0);
-			
-			//Orange
-			addPiece(pieces[6], 2, 3);
-			
-			//Red
-			pieces[4].rotate();
-			addPiece(pieces[4], 5, 2);
-			
-			switchSide();
-			
-			//Light Green
-			pieces[3].rotate();
-			addPiece(pieces[3], 0, 0);
-			
-			//Light Blue
-			pieces[10].rotate();
-			pieces[10].rotate();
-			addPiece(pieces[10], 2, 0);
-			
-			//Teal
-			pieces[9].rotate();
-			addPiece(pieces[9], 5, 2);
-			
-			//Dark Green
-			pieces[8].rotate();
-			pieces[8].rotate();
-			pieces[8].rotate();
-			addPiece(pieces[8], 3, 3);
-			
-			break;
-			
-		//k = 8
-		case 5:
-			//Dark Green
-			pieces[8].rotate();
-			pieces[8].rotate();
-			pieces[8].rotate();
-			addPiece(pieces[8], 1, 1);
-			
-			//Teal
-			pieces[9].rotate();
-			addPiece(pieces[9], 3, 0);
-			
-			//Yellow
-			pieces[5].rotate();
-			addPiece(pieces[5], 4, 0);
-			
-			//Pink
-			pieces[0].rotate();
-			pieces[0].rotate();
-			pieces[0].rotate();
-			addPiece(pieces[0], 0, 3);
-			
-			switchSide();
-			
-			//Purple
-			pieces[7].rotate();
-			pieces[7].rotate();
-			addPiece(pieces[7], 2, 0);
-			
-			//Light Green
-			pieces[3].rotate();
-			pieces[3].rotate();
-			pieces[3].rotate();
-			addPiece(pieces[3], 4, 2);
-			
-			//Pink
-			addPiece(pieces[1], 0, 3);
-			
-			//Dark Blue
-			pieces[2].rotate();
-			pieces[2].rotate();
-			pieces[2].rotate();
-			addPiece(pieces[2], 2, 3);
-			
-			break;
-			
-		//k = 7
-		case 6:
-			//Light Blue
-			pieces[10].rotate();
-			addPiece(pieces[10], 3, 0);
-			
-			switchSide();
-			
-			//Pink
-			pieces[0].rotate();
-			pieces[0].rotate();
-			pieces[0].rotate();
-			addPiece(pieces[0], 4, 0);
-			
-			//Red
-			pieces[4].rotate();
-			addPiece(pieces[4], 5, 2);
-			
-			//Teal
-			addPiece(pieces[9], 1, 1);
-			
-			//Dark Blue
-			pieces[2].rotate();
-			addPiece(pieces[2], 0, 0);
-			
-			//Purple
-			pieces[7].rotate();
-			pieces[7].rotate();
-			pieces[7].rotate();
-			addPiece(pieces[7], 0, 2);
-			
-			//Yellow
-			pieces[5].rotate();
-			pieces[5].rotate();
-			pieces[5].rotate();
-			addPiece(pieces[5], 2, 2);
-			
-			break;
-			
-		//k = 7
-		case 7:
-			//Dark Green
-			pieces[8].rotate();
-			pieces[8].rotate();
-			addPiece(pieces[8], 1, 0);
-			
-			//Teal
-			pieces[9].rotate();
-			addPiece(pieces[9], 3, 0);
-			
-			//Pink
-			pieces[0].rotate();
-			pieces[0].rotate();
-			pieces[0].rotate();
-			addPiece(pieces[0], 4, 0);
-			
-			//Dark Blue
-			pieces[2].rotate();
-			pieces[2].rotate();
-			pieces[2].rotate();
-			addPiece(pieces[2], 2, 3);
-			
-			switchSide();
-			
-			//Light Green
-			pieces[3].rotate();
-			pieces[3].rotate();
-			pieces[3].rotate();
-			addPiece(pieces[3], 0, 2);
-			
-			//Red
-			addPiece(pieces[4], 3, 2);
-			
-			//Yellow
-			addPiece(pieces[5], 3, 3);
-			
-			break;
+		TranspositionTable closed = null;
+		if (options.getClosedSet()) {
+			closed = TranspositionTable.withMemoryLimit(options.getClosedSetMegabytes());
+			closed.record(getSearchKey(options), getSearchCells(options), placedPieces, 0);
+		}
 		
-		//k = 6
-		case 8:
-			//Teal
-			addPiece(pieces[9], 0, 4);
-			
-			//Purple
-			pieces[7].rotate();
-			pieces[7].rotate();
-			addPiece(pieces[7], 1, 0);
-			
-			//Pink
-			pieces[0].rotate();
-			pieces[0].rotate();
-			pieces[0].rotate();
-			addPiece(pieces[0], 4, 1);
-			
-			switchSide();
-			
-			//Light Green
-			addPiece(pieces[3], 2, 0);
-			
-			//Dark Green
-			pieces[8].rotate();
-			pieces[8].rotate();
-			pieces[8].rotate();
-			addPiece(pieces[8], 4, 2);
-			
-			//Yellow
-			pieces[5].rotate();
-			pieces[5].rotate();
-			pieces[5].rotate();
-			addPiece(pieces[5], 0, 2);
-			
-			break;
-			
-		//k = 5
-		case 11:
-			//Light Green
-			addPiece(pieces[3], 2, 2);
-			
-			//Pink
-			pieces[0].rotate();
-			addPiece(pieces[0], 0, 3);
-			
-			//Teal
-			addPiece(pieces[9], 3, 4);
-			
-			switchSide();
-			
-			//Dark Blue
-			addPiece(pieces[2], 4, 1);
-			
-			//Light Blue
-			addPiece(pieces[10], 0, 0);
-			
-			break;
-			
-		//k = 4
-		case 25:
-			//Light Green
-			pieces[3].rotate();
-			pieces[3].rotate();
-			pieces[3].rotate();
-			addPiece(pieces[3], 2, 1);
-			
-			//Dark Green
-			pieces[8].rotate();
-			addPiece(pieces[8], 1, 3);
-			
-			switchSide();
-			
-			//Light Blue
-			pieces[10].rotate();
-			addPiece(pieces[10], 4, 0);
-			
-			//Purple
-			pieces[7].rotate();
-			pieces[7].rotate();
-			pieces[7].rotate();
-			addPiece(pieces[7], 2, 1);
-			
-			break;
-			
-		//k = 4
-		case 26:
-			//Yellow
-			pieces[5].rotate();
-			addPiece(pieces[5], 0, 1);
-
-			//Purple
-			pieces[7].rotate();
-			addPiece(pieces[7], 2, 0);
-			
-			switchSide();
-			
-			//Light Blue
-			pieces[10].rotate();
-			pieces[10].rotate();
-			addPiece(pieces[10], 2, 3);
-			
-			//Red
-			pieces[4].rotate();
-			pieces[4].rotate();
-			addPiece(pieces[4], 0, 2);
-			
-			break;
-			
-		//k = 4
-		case 35:
-			//Dark Blue
-			addPiece(pieces[2], 4, 0);
-			
-			//Red
-			addPiece(pieces[4], 2, 4);
-			
-			switchSide();
-			
-			//Yellow
-			addPiece(pieces[5], 3, 3);
-			
-			//Teal
-			pieces[9].rotate();
-			addPiece(pieces[9], 0, 2);
-			
-			break;
-			
-		//k = 3
-		case 44:
-			//Light Green
-			pieces[3].rotate();
-			pieces[3].rotate();
-			addPiece(pieces[3], 1, 0);
-			
-			//Dark Green
-			pieces[8].rotate();
-			addPiece(pieces[8], 3, 2);
-			
-			switchSide();
-			
-			//Pink
-			pieces[0].rotate();
-			pieces[0].rotate();
-			pieces[0].rotate();
-			addPiece(pieces[0], 4, 0);
-			
-			break;
-			
-		//k = 3
-		case 45:
-			//Red
-			addPiece(pieces[4], 3, 2);
-			
-			switchSide();
-			
-			//Light Blue
-			pieces[10].rotate();
-			pieces[10].rotate();
-			addPiece(pieces[10], 0, 1);
-			
-			//Yellow
-			pieces[5].rotate();
-			pieces[5].rotate();
-			addPiece(pieces[5], 2, 0);
-			
-			break;
-			
-		//k = 3
-		case 46:
-			//Pink
-			pieces[0].rotate();
-			pieces[0].rotate();
-			pieces[0].rotate();
-			addPiece(pieces[0], 2, 0);
-			
-			//Red
-			pieces[4].rotate();
-			addPiece(pieces[4], 0, 2);
-			
-			switchSide();
-			
-			//Light Blue
-			pieces[10].rotate();
-			addPiece(pieces[10], 4, 2);
-			
-			break;
-			
-		//k = 3
-		case 47:
-			//Orange
-			pieces[6].rotate();
-			pieces[6].rotate();
-			pieces[6].rotate();
-			addPiece(pieces[6], 4, 0);
-			
-			//Green
-			pieces[3].rotate();
-			pieces[3].rotate();
-			addPiece(pieces[3], 0, 3);
-			
-			switchSide();
-			
-			//Red
-			pieces[4].rotate();
-			pieces[4].rotate();
-			pieces[4].rotate();
-			addPiece(pieces[4], 5, 1);
-			
-			break;
-			
-		//k = 3
-		case 48:
-			//Pink
-			addPiece(pieces[0], 3, 3);
-			
-			switchSide();
-			
-			//Dark Green
-			addPiece(pieces[8], 3, 3);
-			
-			//Yellow
-			pieces[5].rotate();
-			addPiece(pieces[5], 0, 2);
-			
-			break;
-			
-		//k = 2
-		case 49:
-			//Teal
-			pieces[9].rotate();
-			addPiece(pieces[9], 1, 0);
-			
-			//Orange
-			addPiece(pieces[6], 0, 3);
-			
-			break;
+		//Nodes are kept in an arena and the open list holds their indexes. Children are made
+		//by loading a node into one working copy of the board, then placing and undoing pieces.
+		Board working = (Board) clone();
+		NodeArena arena = new NodeArena();
+		OpenList open;
+		if (options.getFrontier() == SearchOptions.Frontier.BUCKETS) {
+			open = new BucketOpenList();
+		} else {
+			open = new HeapOpenList();
+		}
+		open.add(arena.add(this, NodeArena.NO_PARENT, null, 0), 0, 0);
 		
-		//k = 2
-		case 50:
-			//Orange
-			addPiece(pieces[6], 0, 0);
-			
-			//Pink
-			pieces[0].rotate();
-			pieces[0].rotate();
-			addPiece(pieces[0], 1, 2);
+		SearchStats stats = options.getStats();
+		SearchControl control = options.getControl();
+		int startPieces = Integer.bitCount(placedPieces);
+		int goalIndex = NodeArena.NO_PARENT;
+		while (!open.isEmpty()) {
+			int current = open.remove();
+			if (arena.isSolved(current)) {
+				goalIndex = current;
+				break;
+			}
+			working.restore(arena, current);
+			if (closed != null && arena.getPathCost(current) > closed.getCost(working.getSearchKey(options),
+					working.getSearchCells(options), working.placedPieces)) {
+				//A cheaper path to this state was found after this node was added
+				if (stats != null) {
+					stats.recordDuplicate();
+				}
+				continue;
+			}
+			if (control != null) {
+				control.check();
+				int pieces = Integer.bitCount(arena.getPlacedPieces(current));
+				if (pieces > startPieces && control.isBetterPartial(pieces)) {
+					control.offerPartial(pieces, arena.getPath(current));
+				}
+			}
 			
-			break;
+			int children = working.addChildren(arena, current, open, closed, options);
+			if (stats != null) {
+				int depth = Integer.bitCount(arena.getPlacedPieces(current)) - startPieces;
+				stats.recordExpansion(depth, children);
+				stats.recordFrontierSize(open.size());
+			}
+		}
 		
-		case 51:
-			//Orange
-			addPiece(pieces[6], 2, 2);
-			
-			switchSide();
-			
-			//Teal
-			pieces[9].rotate();
-			addPiece(pieces[9], 5, 0);
-			
-			break;
+		if (goalIndex == NodeArena.NO_PARENT) {
+			return null;
+		}
+		if (stats != null) {
+			//Go back up the solution, comparing each estimate to the cost that was really left
+			int goalCost = arena.getPathCost(goalIndex);
+			for (int i1 = goalIndex; i1 != NodeArena.NO_PARENT; i1 = arena.getParent(i1)) {
+				working.restore(arena, i1);
+				stats.recordHeuristicError(working.heuristic(options) - (goalCost - arena.getPathCost(i1)));
+			}
+		}
+		return arena.getPath(goalIndex);
+	}
+	
+	/**
+	 * Solves the board in its current state on another thread, so the caller does not have to
+	 * wait. The board is copied first, so it can be changed while the search runs.
+	 * <br>
+	 * Cancelling the future stops the search. If the options have a SearchControl, it is used
+	 * for the deadline and the best partial solution, and cancelling it cancels the future.
+	 * If the deadline passes, the future completes with a TimeoutException.
+	 * @param options The settings to use for the search
+	 * @param executor The executor to run the search on
+	 * @return A future for the moves to a solved board, or null if there is no solution
+	 */
+	public CompletableFuture<List<Action>> solveAsync(SearchOptions options, Executor executor) {
+		final Board board = (Board) clone();
+		final SearchOptions searchOptions = new SearchOptions(options);
+		if (searchOptions.getControl() == null) {
+			searchOptions.setControl(new SearchControl());
+		}
+		final SearchControl control = searchOptions.getControl();
 		
-		case 52:
-			//Orange
-			pieces[6].rotate();
-			pieces[6].rotate();
-			pieces[6].rotate();
-			addPiece(pieces[6], 0, 0);
-			
-			switchSide();
-			
-			//Teal
-			pieces[9].rotate();
-			addPiece(pieces[9], 2, 0);
+		final CompletableFuture<List<Action>> future = new CompletableFuture<List<Action>>() {
+			@Override
+			public boolean cancel(boolean mayInterruptIfRunning) {
+				control.cancel();
+				return super.cancel(mayInterruptIfRunning);
+			}
+		};
+		executor.execute(new Runnable() {
+			public void run() {
+				if (future.isDone()) {
+					//Cancelled before it started
+					return;
+				}
+				try {
+					future.complete(board.solve(searchOptions));
+				} catch (CancellationException e) {
+					if (control.isCancelled()) {
+						future.cancel(false);
+					} else {
+						future.completeExceptionally(new TimeoutException(e.getMessage()));
+					}
+				} catch (Throwable t) {
+					future.completeExceptionally(t);
+				}
+			}
+		});
+		return future;
+	}
+	
+	/**
+	 * Adds every board that can be made by placing one more piece to an arena and an open list.
+	 * The node must already be loaded into this board with restore. Like getChildren, each child
+	 * is made by placing a piece, storing the board, and undoing it.
+	 * @param arena The arena the node is in, which the children are added to
+	 * @param node The index of the node to expand
+	 * @param open The open list to add the children to
+	 * @param closed The closed set, or null to keep every child
+	 * @param options The settings for which children to generate
+	 * @return The number of children added
+	 */
+	private int addChildren(NodeArena arena, int node, OpenList open, TranspositionTable closed,
+			SearchOptions options) {
+		int count = 0;
+		for (Placement placement : getMoves(options)) {
+			int pathCost = arena.getPathCost(node) + (int) placement.getCost();
+			if (closed != null && !recordChild(closed, placement, pathCost, options)) {
+				//Already reached this state through a different order of pieces
+				if (options.getStats() != null) {
+					options.getStats().recordDuplicate();
+				}
+				continue;
+			}
 			
-			break;
+			place(placement);
+			double estimate = heuristic(options);
+			//Boards the heuristic found cannot be solved are not kept
+			if (estimate != Double.POSITIVE_INFINITY) {
+				open.add(arena.add(this, node, placement, pathCost), pathCost + estimate,
+						getTieBreak(pathCost, estimate, options));
+				count++;
+			}
+			undo();
+		}
+		return count;
+	}
+	
+	/**
+	 * Gets the actions that led to a node, starting with the last one
+	 * @param goalNode The node to get the actions for
+	 * @return The actions from the node back to the start
+	 */
+	static List<Action> getPath(Node goalNode) {
+		ArrayList<Action> path = new ArrayList<Action>();
+		Node node = goalNode;
+		while (node != null && node.getAction() != null) {
+			path.add(node.getAction());
+			node = node.getParent();
+		}
+		return path;
+	}
+	
+	/**
+	 * Gets every board that can be made by placing one more piece. The node is loaded into
+	 * this board, and each child is made by placing a piece, taking a snapshot, and undoing it.
+	 * @param node The node to expand
+	 * @param closed The closed set, or null to keep every child
+	 * @param options The settings for which children to generate
+	 * @return The children, with their function costs
+	 */
+	ArrayList<NodeCost> getChildren(Node node, TranspositionTable closed, SearchOptions options) {
+		ArrayList<NodeCost> list = new ArrayList<NodeCost>();
 		
-		case 53:
-			switchSide();
-			
-			//Purple
-			pieces[7].rotate();
-			pieces[7].rotate();
-			addPiece(pieces[7], 2, 0);
-			
-			//Yellow
-			addPiece(pieces[5], 1, 3);
-			
-			break;
-
-		case 54:
-			//Dark Blue
-			pieces[2].rotate();
-			pieces[2].rotate();
-			addPiece(pieces[2], 0, 0);
-			
-			//Pink
-			pieces[0].rotate();
-			addPiece(pieces[0], 0, 2);
-			
-			break;
-
-		case 55:
-			switchSide();
-			
-			//Light Blue
-			pieces[10].rotate();
-			pieces[10].rotate();
-			pieces[10].rotate();
-			addPiece(pieces[10], 4, 0);
-			
-			//Dark Green
-			pieces[8].rotate();
-			pieces[8].rotate();
-			addPiece(pieces[8], 3, 0);
-			
-			break;
-
-		case 56:
-			switchSide();
-			
-			//Pink
-			pieces[0].rotate();
-			pieces[0].rotate();
-			pieces[0].rotate();
-			addPiece(pieces[0], 3, 0);
-			
-			//Dark Blue
-			pieces[2].rotate();
-			pieces[2].rotate();
-			addPiece(pieces[2], 0, 3);
-			
-			break;
-
-		case 57:
-			switchSide();
-			
-			//Light Green
-			pieces[3].rotate();
-			pieces[3].rotate();
-			pieces[3].rotate();
-			addPiece(pieces[3], 1, 0);
-			
-			break;
-
-		case 58:
-			switchSide();
-			
-			//Light Green
-			pieces[3].rotate();
-			pieces[3].rotate();
-			pieces[3].rotate();
-			addPiece(pieces[3], 3, 1);
-			
-			break;
-
-		case 59:
-			//Pink
-			pieces[0].rotate();
-			pieces[0].rotate();
-			pieces[0].rotate();
-			addPiece(pieces[0], 3, 1);
-			
-			break;
-
-		case 60:
-			switchSide();
-			
-			//Purple
-			addPiece(pieces[7], 1, 2);
+		restore(node);
+		
+		for (Placement placement : getMoves(options)) {
+			double pathCost = node.getPathCost() + placement.getCost();
+			if (closed != null && !recordChild(closed, placement, pathCost, options)) {
+				//Already reached this state through a different order of pieces
+				continue;
+			}
 			
-			break;
+			place(placement);
+			double estimate = heuristic(options);
+			double tieBreak = getTieBreak(pathCost, estimate, options);
+			Node childNode = new Node(this, node, placement, pathCost);
+			undo();
+			if (estimate == Double.POSITIVE_INFINITY) {
+				//The heuristic found the remaining pieces cannot fill the board
+				continue;
+			}
 			
-		default:
-			throw new IllegalArgumentException("The initial state number was not recognized. Number must be between 1 and 60.");
+			NodeCost childNodeCost = new NodeCost(childNode, pathCost + estimate, tieBreak); 
+			list.add(childNodeCost);
 		}
 		
-		if (!sideFront) {
-			switchSide();
+		return list;
+	}
+	
+	/**
+	 * Gets the tie break for a board in the A* open list, between boards with the same cost.
+	 * The admissible heuristic gives every board that can be solved the same function cost, so
+	 * its ties are broken by the function cost with the cell heuristic to keep that order. With
+	 * the cell heuristic, the bucket open list takes the lowest estimate first, which is the
+	 * board nearest to being solved. The binary heap keeps the order the boards were added in,
+	 * which is the order this search has always used and does best with every placement.
+	 * @param pathCost The path cost to the board
+	 * @param estimate The estimate from the heuristic in the options
+	 * @param options The settings, to choose the heuristic and open list
+	 * @return The tie break
+	 */
+	private double getTieBreak(double pathCost, double estimate, SearchOptions options) {
+		if (options.getHeuristic() == SearchOptions.Heuristic.PEG_KNAPSACK) {
+			return pathCost + heuristic();
 		}
+		if (options.getFrontier() == SearchOptions.Frontier.BUCKETS) {
+			return estimate;
+		}
+		return 0;
 	}
 	
-	public BoardCell[][] getBoardArr() {
-		return boardArr;
+	/**
+	 * Gets the key a closed set stores this board under
+	 * @param options The settings, to check if symmetric boards are pruned
+	 * @return The canonical key if they are, or the Zobrist hash if not
+	 */
+	long getSearchKey(SearchOptions options) {
+		return options.getPruneSymmetry() ? getCanonicalKey() : zobristKey;
 	}
 	
-	public boolean getSide() {
-		return sideFront;
+	/**
+	 * Gets the covered cells a NogoodCache stores this board under
+	 * @param options The settings, to check if symmetric boards are pruned
+	 * @return The cells, see getSearchCells(long, long, SearchOptions)
+	 */
+	long getSearchCells(SearchOptions options) {
+		return getSearchCells(frontMask, backMask, options);
 	}
 	
 	/**
-	 * Solves the board in its current state using the A* algorithm
-	 * @return A List of Action objects to represent the moves to a solved board
+	 * Packs the covered cells of a board into one long, the front mask and the back mask shifted
+	 * up by NUM_CELLS. If symmetric boards are pruned, the board turned around is packed instead
+	 * when that is lower, so a board and the same board turned around have the same cells.
+	 * @param front The cells covered on the front
+	 * @param back The cells covered on the back
+	 * @param options The settings, to check if symmetric boards are pruned
+	 * @return The packed cells
 	 */
-	public List<Action> solve() {
-		PriorityQueue<NodeCost> q = new PriorityQueue<NodeCost>();
-		Node startNode = new Node(this, null, null, 0);
-		NodeCost startNodeCost = new NodeCost(startNode, 0);
-		q.add(startNodeCost);
-		
-		Board goalBoard = new Board();
-		BoardCell[][] goalBoardArr = new BoardCell[HEIGHT][WIDTH];
-		for (int y = 0; y < HEIGHT; y++) {
-			for (int x = 0; x < WIDTH; x++) {
-				BoardCell bc = new BoardCell();
-				bc.setFront(true);
-				bc.setBack(true);
-				goalBoardArr[y][x] = bc;
+	static long getSearchCells(long front, long back, SearchOptions options) {
+		long cells = front | back << NUM_CELLS;
+		if (options.getPruneSymmetry()) {
+			cells = Math.min(cells, mirrorMask(back) | mirrorMask(front) << NUM_CELLS);
+		}
+		return cells;
+	}
+	
+	/**
+	 * Records a child of this board in a closed set, without placing the piece
+	 * @param closed The closed set
+	 * @param placement A placement that fits on this board
+	 * @param pathCost The path cost of the child
+	 * @param options The settings, to check if symmetric boards are pruned
+	 * @return True if this is the lowest cost the child's state has been reached with
+	 */
+	private boolean recordChild(TranspositionTable closed, Placement placement, double pathCost,
+			SearchOptions options) {
+		long childCells = getSearchCells(frontMask | placement.getFrontMask(), backMask | placement.getBackMask(), options);
+		return closed.record(getChildKey(placement, options), childCells,
+				placedPieces | 1 << placement.getPieceIndex(), pathCost);
+	}
+	
+	/**
+	 * Gets the key a closed set would store a child of this board under, without placing the piece
+	 * @param placement A placement that fits on this board
+	 * @param options The settings, to check if symmetric boards are pruned
+	 * @return The search key of the board after the placement
+	 */
+	private long getChildKey(Placement placement, SearchOptions options) {
+		long childKey = zobristKey ^ placement.getZobristKey();
+		if (options.getPruneSymmetry()) {
+			childKey = Math.min(childKey, mirrorKey ^ placement.getMirrorKey());
+		}
+		return childKey;
+	}
+	
+	/**
+	 * Gets the placements to try next from this board
+	 * @param options The settings for which placements to generate
+	 * @return With ALL_PLACEMENTS, every placement of every remaining piece that fits.
+	 * With CELL_ANCHORED, only the placements that cover the empty cell side with the fewest of them.
+	 * With PIECE_ORDER, only the placements of the remaining piece that fits in the fewest places.
+	 * If dead regions are pruned, placements that leave a region no remaining pieces can fill are left out.
+	 * If symmetry is pruned, a piece is only placed once every earlier piece of the same shape is placed,
+	 * and on a board that is the same turned around, only one of each placement and its mirror is kept
+	 * unless mirrors are not pruned.
+	 */
+	public ArrayList<Placement> getMoves(SearchOptions options) {
+		ArrayList<Placement> moves = new ArrayList<Placement>();
+		if (options.getBranching() == SearchOptions.Branching.CELL_ANCHORED) {
+			if (!isSolved()) {
+				for (Placement placement : getAnchorPlacements()) {
+					if (canPlace(placement) == PLACE_OK && !isSymmetricRepeat(placement, options)
+							&& !leavesDeadRegion(placement, options)) {
+						moves.add(placement);
+					}
+				}
 			}
+			return removeMirrors(moves, options);
 		}
-		goalBoard.boardArr = goalBoardArr;
 		
-		while (!q.isEmpty()) {
-			NodeCost nc = q.remove();
-			Node currentNode = nc.getNode();
-			if (currentNode.getState().equals(goalBoard)) {
-				ArrayList<Action> path = new ArrayList<Action>();
-				Node node = currentNode;
-				while (node != null && node.getAction() != null) {
-					path.add(node.getAction());
-					node = node.getParent();
+		int onlyPiece = -1;
+		if (options.getBranching() == SearchOptions.Branching.PIECE_ORDER) {
+			onlyPiece = getAnchorPiece(options);
+		}
+		for (int pieceNum = 0; pieceNum < Piece.NUM_PIECES; pieceNum++) {
+			if (isPlaced(pieceNum) || (onlyPiece != -1 && pieceNum != onlyPiece)) {
+				continue;
+			}
+			for (Placement placement : Placement.forPiece(pieceNum)) {
+				if (canPlace(placement) != PLACE_OK) {
+					//Tried to place piece on top of another
+					continue;
 				}
-				return path;
-			} else {
-				ArrayList<NodeCost> children = getChildren(currentNode);
-				for (NodeCost child : children) {
-					q.add(child);
+				if (isSymmetricRepeat(placement, options) || leavesDeadRegion(placement, options)) {
+					continue;
 				}
+				moves.add(placement);
 			}
 		}
-		
-		return null;
+		return removeMirrors(moves, options);
 	}
 	
-	private static ArrayList<NodeCost> getChildren(Node node) {
-		ArrayList<NodeCost> list = new ArrayList<NodeCost>();
-		
-		int numPieces = node.getState().getAvailablePieces().size();
-		
-		for (int pieceNum = 0; pieceNum < numPieces; pieceNum++) {
-			for (int boardSide = 0; boardSide < 2; boardSide++) {
-				for (int y = 0; y < HEIGHT; y++) {
-					for (int x = 0; x < WIDTH; x++) {
-						for (int rotation = 0; rotation < 4; rotation++) {
-							Board childState = (Board) node.getState().clone();
-							if (boardSide == 1) {
-								childState.switchSide();
-							}
-							
-							ArrayList<Piece> pieces = childState.getAvailablePieces();
-							Piece p = pieces.get(pieceNum);
-							
-							for (int i1 = 0; i1 < rotation; i1++) {
-								p.rotate();
-							}
-							
-							try {
-								childState.addPiece(p, x, y);
-								Action childAction = new Action(p, x, y, childState.getSide());
-								
-								double pathCost = node.getPathCost() + p.getCost();
-								
-								Node childNode = new Node(childState, node, childAction, pathCost);
-								
-								double functionCost = childNode.getPathCost() + childState.heuristic();
-								NodeCost childNodeCost = new NodeCost(childNode, functionCost); 
-								list.add(childNodeCost);
-							} catch (IllegalArgumentException e) {
-								//Tried to place piece on top of another, off the edge, etc...
-								continue;
-							}
-						}
+	/**
+	 * Finds the remaining piece that fits in the fewest places. Every remaining piece has to be
+	 * placed, and the pieces can be placed in any order to get the same board, so trying only
+	 * the placements of this piece still finds every solution, and each set of placements is
+	 * only reached in one order. The board must not be solved.
+	 * @param options The settings, to check if symmetry is pruned
+	 * @return The index of the piece
+	 */
+	private int getAnchorPiece(SearchOptions options) {
+		int best = -1;
+		int bestCount = Integer.MAX_VALUE;
+		for (int pieceNum = 0; pieceNum < Piece.NUM_PIECES; pieceNum++) {
+			if (isPlaced(pieceNum)) {
+				continue;
+			}
+			if (options.getPruneSymmetry() && (EARLIER_SAME_SHAPE[pieceNum] & ~placedPieces) != 0) {
+				//This piece is placed after the identical piece before it
+				continue;
+			}
+			int count = 0;
+			for (Placement placement : Placement.forPiece(pieceNum)) {
+				if (canPlace(placement) == PLACE_OK) {
+					count++;
+					if (count >= bestCount) {
+						break;
 					}
 				}
 			}
+			if (count < bestCount) {
+				best = pieceNum;
+				bestCount = count;
+				if (count <= 1) {
+					break;
+				}
+			}
 		}
-		
-		return list;
+		return best;
 	}
 	
-	public double heuristic() {
-		double total = 0;
-		for (int y = 0; y < HEIGHT; y++) {
-			for (int x = 0; x < WIDTH; x++) {
-				BoardCell bc = boardArr[y][x];
-				if (!bc.getFront() && !bc.getBack()) {
-					total += 2.0;
-				} else if (!bc.getFront() || !bc.getBack()) {
-					total += 1.5;
-				}
+	/**
+	 * Checks if a placement is of a piece that has an identical piece before it still to be placed.
+	 * Identical pieces can be swapped in any solution, so only placing them in order of index
+	 * still finds every solution.
+	 * @param placement A placement that fits on this board
+	 * @param options The settings, to check if symmetry is pruned
+	 * @return True if symmetry is pruned and an earlier identical piece has not been placed
+	 */
+	private boolean isSymmetricRepeat(Placement placement, SearchOptions options) {
+		if (!options.getPruneSymmetry()) {
+			return false;
+		}
+		return (EARLIER_SAME_SHAPE[placement.getPieceIndex()] & ~placedPieces) != 0;
+	}
+	
+	/**
+	 * Removes placements whose mirror is also in the list, if this board is the same turned around.
+	 * The boards they make are each other turned around, so only one of them needs to be searched.
+	 * @param moves The placements that fit on this board
+	 * @param options The settings, to check if symmetry and mirrors are pruned
+	 * @return The same list, with the mirrors removed
+	 */
+	private ArrayList<Placement> removeMirrors(ArrayList<Placement> moves, SearchOptions options) {
+		if (!options.getPruneSymmetry() || !options.getPruneMirrors() || !isMirrorSymmetric()) {
+			return moves;
+		}
+		HashSet<Long> seen = new HashSet<Long>();
+		ArrayList<Placement> kept = new ArrayList<Placement>();
+		for (Placement placement : moves) {
+			if (seen.add(getChildKey(placement, options))) {
+				kept.add(placement);
 			}
 		}
-		return total;
+		return kept;
 	}
 	
-	public ArrayList<Piece> getAvailablePieces() {
-		ArrayList<Piece> pieces = new ArrayList<Piece>();
-		for (Piece p : this.pieces) {
-			if (!p.isPlaced()) {
-				pieces.add(p);
+	/**
+	 * Checks if a placement would leave the board with a region no remaining pieces can fill
+	 * @param placement A placement that fits on this board
+	 * @param options The settings, to check if dead regions are pruned
+	 * @return True if dead regions are pruned and the placement leaves one
+	 */
+	private boolean leavesDeadRegion(Placement placement, SearchOptions options) {
+		if (!options.getPruneDeadRegions()) {
+			return false;
+		}
+		return RegionPruner.hasDeadRegion(frontMask | placement.getFrontMask(), backMask | placement.getBackMask(),
+				placedPieces | (1 << placement.getPieceIndex()));
+	}
+	
+	/**
+	 * Finds the empty cell, on the front or back, that the fewest placements fit on.
+	 * Every empty cell side has to be covered by exactly one piece, so trying only the
+	 * placements that cover it still finds every solution, and each set of pieces is
+	 * only reached in one order. The board must not be solved.
+	 * @return Every placement covering that cell side, including ones that do not fit
+	 */
+	private Placement[] getAnchorPlacements() {
+		Placement[] best = null;
+		int bestCount = Integer.MAX_VALUE;
+		for (int side = 0; side < 2; side++) {
+			long empty = ~(side == 0 ? frontMask : backMask) & FULL_MASK;
+			while (empty != 0) {
+				int cell = Long.numberOfTrailingZeros(empty);
+				empty &= empty - 1;
+				
+				Placement[] covering = side == 0 ? Placement.coveringFront(cell) : Placement.coveringBack(cell);
+				int count = 0;
+				for (Placement placement : covering) {
+					if (canPlace(placement) == PLACE_OK) {
+						count++;
+						if (count >= bestCount) {
+							break;
+						}
+					}
+				}
+				if (count < bestCount) {
+					best = covering;
+					bestCount = count;
+					if (count <= 1) {
+						//Cannot do better than a forced move or a dead end
+						return best;
+					}
+				}
 			}
 		}
-		return pieces;
+		return best;
 	}
 	
 	/**
-	 * Prints out all of the pieces that have not been placed on the board yet
+	 * Estimates the cost left to solve the board. Each cell empty on both sides counts
+	 * EMPTY_CELL_COST and each cell empty on one side counts HALF_CELL_COST. The value is
+	 * kept up to date as pieces are placed and removed, so this does not scan the board.
+	 * <br>
+	 * A cell empty on one side only costs 1 to fill, so this can be more than the real cost
+	 * and is not admissible. Every solution from a board costs the same, so the searches still
+	 * find a cheapest one, and the extra half point orders boards with fewer half filled cells
+	 * first. PegKnapsack gives an admissible heuristic.
+	 * @return The estimated cost to a solved board
 	 */
-	public void printPieces() {
-		ArrayList<Piece> pieces = getAvailablePieces();
-		for (int i1 = 0; i1 < pieces.size(); i1++) {
-			System.out.println("Piece " + (i1 + 1) + ":");
-			System.out.println(pieces.get(i1));
+	public double heuristic() {
+		return heuristicValue;
+	}
+	
+	/**
+	 * Estimates the cost left to solve the board with the heuristic in the options
+	 * @param options The settings, to choose the heuristic
+	 * @return The estimated cost to a solved board, or Double.POSITIVE_INFINITY if
+	 * the heuristic found it cannot be solved
+	 */
+	public double heuristic(SearchOptions options) {
+		if (options.getHeuristic() == SearchOptions.Heuristic.PEG_KNAPSACK) {
+			return PegKnapsack.heuristic(frontMask, backMask, placedPieces);
 		}
+		return heuristicValue;
+	}
+	
+	/**
+	 * Adds up the heuristic cost of some of the cells of the board
+	 * @param cells A mask of the cells to count
+	 * @return The part of the heuristic from those cells
+	 */
+	private double cellsHeuristic(long cells) {
+		long emptyBoth = cells & ~(frontMask | backMask);
+		long emptyOne = cells & (frontMask ^ backMask);
+		return EMPTY_CELL_COST * Long.bitCount(emptyBoth) + HALF_CELL_COST * Long.bitCount(emptyOne);
 	}
 	
 	/**
@@ -1007,20 +1145,23 @@ public class Board implements Cloneable {
 		str += "\n";
 		for (int y = 0; y < HEIGHT; y++) {
 			for (int x = 0; x < WIDTH; x++) {
-				BoardCell cell = boardArr[y][x];
+				int i1 = cellIndex(frontX(x), y);
+				long bit = 1L << i1;
+				boolean front = (frontMask & bit) != 0;
+				boolean back = (backMask & bit) != 0;
 				if (sideFront) {
-					if (cell.getFront()) {
-						str += "|" + cell.getFrontColor();
-					} else if (cell.getBack()) {
-						str += "|" + Character.toLowerCase(cell.getBackColor());
+					if (front) {
+						str += "|" + frontColors[i1];
+					} else if (back) {
+						str += "|" + Character.toLowerCase(backColors[i1]);
 					} else {
 						str += "| ";
 					}
 				} else {
-					if (cell.getBack()) {
-						str += "|" + cell.getBackColor();
-					} else if (cell.getFront()) {
-						str += "|" + Character.toLowerCase(cell.getFrontColor());
+					if (back) {
+						str += "|" + backColors[i1];
+					} else if (front) {
+						str += "|" + Character.toLowerCase(frontColors[i1]);
 					} else {
 						str += "| ";
 					}
@@ -1040,22 +1181,12 @@ public class Board implements Cloneable {
 		try {
 			o = super.clone();
 			Board b = (Board) o;
-			b.boardArr = boardArr.clone();
-			for (int i1 = 0; i1 < boardArr.length; i1++) {
-				b.boardArr[i1] = boardArr[i1].clone();
-			}
-			for (int y = 0; y < b.boardArr.length; y++) {
-				for (int x = 0; x < b.boardArr[0].length; x++) {
-					b.boardArr[y][x] = (BoardCell) boardArr[y][x].clone();
-				}
-			}
-			b.pieces = pieces.clone();
-			for (int i1 = 0; i1 < pieces.length; i1++) {
-				b.pieces[i1] = (Piece) pieces[i1].clone();
-			}
+			//Only the clone is written to, so boards on other threads can be cloned at once
+			b.frontColors = frontColors.clone();
+			b.backColors = backColors.clone();
+			b.moveStack = moveStack.clone();
 		} catch (CloneNotSupportedException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
+			throw new AssertionError(e);
 		}
 		return o;
 	}
@@ -1064,18 +1195,13 @@ public class Board implements Cloneable {
 	public boolean equals(Object o) {
 		if (o instanceof Board) {
 			Board b = (Board) o;
-			BoardCell[][] otherBoardArr = b.getBoardArr();
-			for (int y = 0; y < HEIGHT; y++) {
-				for (int x = 0; x < WIDTH; x++) {
-					BoardCell tBC = boardArr[y][x];
-					BoardCell oBC = otherBoardArr[y][x];
-					if (tBC.getFront() != oBC.getFront() || tBC.getBack() != oBC.getBack()) {
-						return false;
-					}
-				}
-			}
-			return true;
+			return frontMask == b.frontMask && backMask == b.backMask;
 		}
 		return false;
 	}
+	
+	@Override
+	public int hashCode() {
+		return 31 * Long.hashCode(frontMask) + Long.hashCode(backMask);
+	}
 }
@@ -0,0 +1,537 @@
+/**
+ * The <code>BookletPuzzles</code> class has the initial states from the game booklet, as
+ * they were first typed in: adding the pieces to the board one at a time, each in its orientation.
+ * Boards now load their initial states from the PuzzleCatalog, so this is only used by
+ * PuzzleCatalogWriter to write the booklet puzzles into the catalog.
+ *
+ * @author Jordan Turley
+ * @author Will Edwards
+ */
+public class BookletPuzzles {
+	/**
+	 * Sets up a board in one of the initial states from the game booklet
+	 * @param board The board to set up
+	 * @param state The initial state number from the game booklet. Must be between 1 and 60
+	 */
+	public static void setUp(Board board, int state) {
+		Piece[] pieces = Piece.ALL_PIECES;
+		board.clearBoard();
+		//The states below count rotations from the layouts the pieces were created with
+		setUpPieces(board, pieces, state);
+		
+		if (!board.getSide()) {
+			board.switchSide();
+		}
+	}
+	
+	/**
+	 * Adds the pieces for one initial state
+	 */
+	private static void setUpPieces(Board board, Piece[] pieces, int state) {
+		switch (state) {
+		//k = 9
+		case 1:
+			//Pink
+			board.addPiece(pieces[0].getOrientation(2), 0, 0);
+			
+			//Purple
+			board.addPiece(pieces[7].getOrientation(2), 3, 0);
+			
+			//Light Green
+			board.addPiece(pieces[3].getOrientation(3), 1, 2);
+			
+			//Orange
+			board.addPiece(pieces[6], 3, 3);
+			
+			board.switchSide();
+			
+			//Dark Blue
+			board.addPiece(pieces[2].getOrientation(1), 0, 1);
+			
+			//Yellow
+			board.addPiece(pieces[5].getOrientation(3), 0, 2);
+			
+			//Teal
+			board.addPiece(pieces[9].getOrientation(1), 2, 0);
+			
+			//Red
+			board.addPiece(pieces[4].getOrientation(3), 3, 0);
+			
+			//Dark Green
+			board.addPiece(pieces[8].getOrientation(3), 4, 1);
+			
+			break;
+		
+		//k = 8
+		case 2:
+			//Light Green
+			board.addPiece(pieces[3], 0, 0);
+			
+			//Red
+			board.addPiece(pieces[4].getOrientation(2), 0, 2);
+			
+			//Pink
+			board.addPiece(pieces[0].getOrientation(1), 0, 3);
+			
+			//Orange
+			board.addPiece(pieces[6], 2, 2);
+			
+			//Teal
+			board.addPiece(pieces[9].getOrientation(1), 5, 0);
+			
+			//Dark Blue
+			board.addPiece(pieces[2].getOrientation(3), 4, 3);
+			
+			board.switchSide();
+			
+			//Purple
+			board.addPiece(pieces[7].getOrientation(1), 2, 0);
+			
+			//Light Blue
+			board.addPiece(pieces[10].getOrientation(3), 1, 2);
+			
+			break;
+		
+		//k = 9
+		case 3:
+			//Orange
+			board.addPiece(pieces[6].getOrientation(3), 0, 0);
+			
+			//Dark Green
+			board.addPiece(pieces[8].getOrientation(1), 2, 0);
+			
+			//Dark Blue
+			board.addPiece(pieces[2], 4, 0);
+			
+			//Pink
+			board.addPiece(pieces[0].getOrientation(2), 2, 3);
+			
+			//Light Blue
+			board.addPiece(pieces[10].getOrientation(3), 4, 2);
+			
+			board.switchSide();
+			
+			//Light Green
+			board.addPiece(pieces[3], 2, 3);
+			
+			//Yellow
+			board.addPiece(pieces[5].getOrientation(3), 0, 2);
+			
+			//Red
+			board.addPiece(pieces[4].getOrientation(1), 5, 0);
+			
+			//Purple
+			board.addPiece(pieces[7], 2, 1);
+			
+			break;
+		
+		//k = 9
+		case 4:
+			//Pink
+			board.addPiece(pieces[0].getOrientation(1), 0, 0);
+			
+			//Dark Blue
+			board.addPiece(pieces[2], 2, 0);
+			
+			//Pink
+			board.addPiece(pieces[1].getOrientation(1), 4, 0);
+			
+			//Orange
+			board.addPiece(pieces[6], 2, 3);
+			
+			//Red
+			board.addPiece(pieces[4].getOrientation(1), 5, 2);
+			
+			board.switchSide();
+			
+			//Light Green
+			board.addPiece(pieces[3].getOrientation(1), 0, 0);
+			
+			//Light Blue
+			board.addPiece(pieces[10].getOrientation(2), 2, 0);
+			
+			//Teal
+			board.addPiece(pieces[9].getOrientation(1), 5, 2);
+			
+			//Dark Green
+			board.addPiece(pieces[8].getOrientation(3), 3, 3);
+			
+			break;
+		
+		//k = 8
+		case 5:
+			//Dark Green
+			board.addPiece(pieces[8].getOrientation(3), 1, 1);
+			
+			//Teal
+			board.addPiece(pieces[9].getOrientation(1), 3, 0);
+			
+			//Yellow
+			board.addPiece(pieces[5].getOrientation(1), 4, 0);
+			
+			//Pink
+			board.addPiece(pieces[0].getOrientation(3), 0, 3);
+			
+			board.switchSide();
+			
+			//Purple
+			board.addPiece(pieces[7].getOrientation(2), 2, 0);
+			
+			//Light Green
+			board.addPiece(pieces[3].getOrientation(3), 4, 2);
+			
+			//Pink
+			board.addPiece(pieces[1], 0, 3);
+			
+			//Dark Blue
+			board.addPiece(pieces[2].getOrientation(3), 2, 3);
+			
+			break;
+		
+		//k = 7
+		case 6:
+			//Light Blue
+			board.addPiece(pieces[10].getOrientation(1), 3, 0);
+			
+			board.switchSide();
+			
+			//Pink
+			board.addPiece(pieces[0].getOrientation(3), 4, 0);
+			
+			//Red
+			board.addPiece(pieces[4].getOrientation(1), 5, 2);
+			
+			//Teal
+			board.addPiece(pieces[9], 1, 1);
+			
+			//Dark Blue
+			board.addPiece(pieces[2].getOrientation(1), 0, 0);
+			
+			//Purple
+			board.addPiece(pieces[7].getOrientation(3), 0, 2);
+			
+			//Yellow
+			board.addPiece(pieces[5].getOrientation(3), 2, 2);
+			
+			break;
+		
+		//k = 7
+		case 7:
+			//Dark Green
+			board.addPiece(pieces[8].getOrientation(2), 1, 0);
+			
+			//Teal
+			board.addPiece(pieces[9].getOrientation(1), 3, 0);
+			
+			//Pink
+			board.addPiece(pieces[0].getOrientation(3), 4, 0);
+			
+			//Dark Blue
+			board.addPiece(pieces[2].getOrientation(3), 2, 3);
+			
+			board.switchSide();
+			
+			//Light Green
+			board.addPiece(pieces[3].getOrientation(3), 0, 2);
+			
+			//Red
+			board.addPiece(pieces[4], 3, 2);
+			
+			//Yellow
+			board.addPiece(pieces[5], 3, 3);
+			
+			break;
+		
+		//k = 6
+		case 8:
+			//Teal
+			board.addPiece(pieces[9], 0, 4);
+			
+			//Purple
+			board.addPiece(pieces[7].getOrientation(2), 1, 0);
+			
+			//Pink
+			board.addPiece(pieces[0].getOrientation(3), 4, 1);
+			
+			board.switchSide();
+			
+			//Light Green
+			board.addPiece(pieces[3], 2, 0);
+			
+			//Dark Green
+			board.addPiece(pieces[8].getOrientation(3), 4, 2);
+			
+			//Yellow
+			board.addPiece(pieces[5].getOrientation(3), 0, 2);
+			
+			break;
+		
+		//k = 5
+		case 11:
+			//Light Green
+			board.addPiece(pieces[3], 2, 2);
+			
+			//Pink
+			board.addPiece(pieces[0].getOrientation(1), 0, 3);
+			
+			//Teal
+			board.addPiece(pieces[9], 3, 4);
+			
+			board.switchSide();
+			
+			//Dark Blue
+			board.addPiece(pieces[2], 4, 1);
+			
+			//Light Blue
+			board.addPiece(pieces[10], 0, 0);
+			
+			break;
+		
+		//k = 4
+		case 25:
+			//Light Green
+			board.addPiece(pieces[3].getOrientation(3), 2, 1);
+			
+			//Dark Green
+			board.addPiece(pieces[8].getOrientation(1), 1, 3);
+			
+			board.switchSide();
+			
+			//Light Blue
+			board.addPiece(pieces[10].getOrientation(1), 4, 0);
+			
+			//Purple
+			board.addPiece(pieces[7].getOrientation(3), 2, 1);
+			
+			break;
+		
+		//k = 4
+		case 26:
+			//Yellow
+			board.addPiece(pieces[5].getOrientation(1), 0, 1);
+			
+			//Purple
+			board.addPiece(pieces[7].getOrientation(1), 2, 0);
+			
+			board.switchSide();
+			
+			//Light Blue
+			board.addPiece(pieces[10].getOrientation(2), 2, 3);
+			
+			//Red
+			board.addPiece(pieces[4].getOrientation(2), 0, 2);
+			
+			break;
+		
+		//k = 4
+		case 35:
+			//Dark Blue
+			board.addPiece(pieces[2], 4, 0);
+			
+			//Red
+			board.addPiece(pieces[4], 2, 4);
+			
+			board.switchSide();
+			
+			//Yellow
+			board.addPiece(pieces[5], 3, 3);
+			
+			//Teal
+			board.addPiece(pieces[9].getOrientation(1), 0, 2);
+			
+			break;
+		
+		//k = 3
+		case 44:
+			//Light Green
+			board.addPiece(pieces[3].getOrientation(2), 1, 0);
+			
+			//Dark Green
+			board.addPiece(pieces[8].getOrientation(1), 3, 2);
+			
+			board.switchSide();
+			
+			//Pink
+			board.addPiece(pieces[0].getOrientation(3), 4, 0);
+			
+			break;
+		
+		//k = 3
+		case 45:
+			//Red
+			board.addPiece(pieces[4], 3, 2);
+			
+			board.switchSide();
+			
+			//Light Blue
+			board.addPiece(pieces[10].getOrientation(2), 0, 1);
+			
+			//Yellow
+			board.addPiece(pieces[5].getOrientation(2), 2, 0);
+			
+			break;
+		
+		//k = 3
+		case 46:
+			//Pink
+			board.addPiece(pieces[0].getOrientation(3), 2, 0);
+			
+			//Red
+			board.addPiece(pieces[4].getOrientation(1), 0, 2);
+			
+			board.switchSide();
+			
+			//Light Blue
+			board.addPiece(pieces[10].getOrientation(1), 4, 2);
+			
+			break;
+		
+		//k = 3
+		case 47:
+			//Orange
+			board.addPiece(pieces[6].getOrientation(3), 4, 0);
+			
+			//Green
+			board.addPiece(pieces[3].getOrientation(2), 0, 3);
+			
+			board.switchSide();
+			
+			//Red
+			board.addPiece(pieces[4].getOrientation(3), 5, 1);
+			
+			break;
+		
+		//k = 3
+		case 48:
+			//Pink
+			board.addPiece(pieces[0], 3, 3);
+			
+			board.switchSide();
+			
+			//Dark Green
+			board.addPiece(pieces[8], 3, 3);
+			
+			//Yellow
+			board.addPiece(pieces[5].getOrientation(1), 0, 2);
+			
+			break;
+		
+		//k = 2
+		case 49:
+			//Teal
+			board.addPiece(pieces[9].getOrientation(1), 1, 0);
+			
+			//Orange
+			board.addPiece(pieces[6], 0, 3);
+			
+			break;
+		
+		//k = 2
+		case 50:
+			//Orange
+			board.addPiece(pieces[6], 0, 0);
+			
+			//Pink
+			board.addPiece(pieces[0].getOrientation(2), 1, 2);
+			
+			break;
+		
+		case 51:
+			//Orange
+			board.addPiece(pieces[6], 2, 2);
+			
+			board.switchSide();
+			
+			//Teal
+			board.addPiece(pieces[9].getOrientation(1), 5, 0);
+			
+			break;
+		
+		case 52:
+			//Orange
+			board.addPiece(pieces[6].getOrientation(3), 0, 0);
+			
+			board.switchSide();
+			
+			//Teal
+			board.addPiece(pieces[9].getOrientation(1), 2, 0);
+			
+			break;
+		
+		case 53:
+			board.switchSide();
+			
+			//Purple
+			board.addPiece(pieces[7].getOrientation(2), 2, 0);
+			
+			//Yellow
+			board.addPiece(pieces[5], 1, 3);
+			
+			break;
+		
+		case 54:
+			//Dark Blue
+			board.addPiece(pieces[2].getOrientation(2), 0, 0);
+			
+			//Pink
+			board.addPiece(pieces[0].getOrientation(1), 0, 2);
+			
+			break;
+		
+		case 55:
+			board.switchSide();
+			
+			//Light Blue
+			board.addPiece(pieces[10].getOrientation(3), 4, 0);
+			
+			//Dark Green
+			board.addPiece(pieces[8].getOrientation(2), 3, 0);
+			
+			break;
+		
+		case 56:
+			board.switchSide();
+			
+			//Pink
+			board.addPiece(pieces[0].getOrientation(3), 3, 0);
+			
+			//Dark Blue
+			board.addPiece(pieces[2].getOrientation(2), 0, 3);
+			
+			break;
+		
+		case 57:
+			board.switchSide();
+			
+			//Light Green
+			board.addPiece(pieces[3].getOrientation(3), 1, 0);
+			
+			break;
+		
+		case 58:
+			board.switchSide();
+			
+			//Light Green
+			board.addPiece(pieces[3].getOrientation(3), 3, 1);
+			
+			break;
+		
+		case 59:
+			//Pink
+			board.addPiece(pieces[0].getOrientation(3), 3, 1);
+			
+			break;
+		
+		case 60:
+			board.switchSide();
+			
+			//Purple
+			board.addPiece(pieces[7], 1, 2);
+			
+			break;
+		
+		default:
+			throw new IllegalArgumentException("The initial state number was not recognized. Number must be between 1 and 60.");
+		}
+	}
+}
@@ -0,0 +1,74 @@
+import java.util.Arrays;
+
+/**
+ * The <code>BucketOpenList</code> class is an open list with a bucket for every cost and tie
+ * break. Costs are multiples of 0.5 and no higher than a few times the number of cells, so
+ * there are few enough of them to give each pair its own stack of node indexes. Adding a node
+ * pushes it on its stack, and removing one pops from the first stack that is not empty, so both
+ * take constant time apart from moving past stacks that have been emptied.
+ * <br>
+ * Within a stack the node added last comes out first, so the search keeps going down from the
+ * node it just expanded instead of going back to older nodes with the same cost.
+ *
+ * @author Jordan Turley
+ * @author Will Edwards
+ */
+public class BucketOpenList implements OpenList {
+	//The highest number of halves a cost or tie break can have
+	private static final int MAX_HALVES = 255;
+	private static final int KEYS_PER_COST = MAX_HALVES + 1;
+	private static final int INITIAL_STACK_SIZE = 16;
+	
+	//The stack of node indexes for each key, which is the doubled cost times KEYS_PER_COST
+	//plus the doubled tie break. Stacks are made when a node is first added to them.
+	private int[][] stacks;
+	private int[] stackSizes;
+	private int lowestKey;
+	private int size;
+	
+	/**
+	 * Creates a new empty open list
+	 */
+	public BucketOpenList() {
+		stacks = new int[KEYS_PER_COST * KEYS_PER_COST][];
+		stackSizes = new int[stacks.length];
+		lowestKey = stacks.length;
+		size = 0;
+	}
+	
+	public void add(int index, double cost, double tieBreak) throws IllegalArgumentException {
+		int key = OpenList.halves(cost, MAX_HALVES) * KEYS_PER_COST + OpenList.halves(tieBreak, MAX_HALVES);
+		int[] stack = stacks[key];
+		if (stack == null) {
+			stack = new int[INITIAL_STACK_SIZE];
+			stacks[key] = stack;
+		} else if (stackSizes[key] == stack.length) {
+			stack = Arrays.copyOf(stack, stack.length * 2);
+			stacks[key] = stack;
+		}
+		stack[stackSizes[key]++] = index;
+		size++;
+		
+		//The heuristics are not always consistent, so a child can cost less than its parent
+		lowestKey = Math.min(lowestKey, key);
+	}
+	
+	public int remove() throws IllegalStateException {
+		if (size == 0) {
+			throw new IllegalStateException("The open list is empty.");
+		}
+		while (stackSizes[lowestKey] == 0) {
+			lowestKey++;
+		}
+		size--;
+		return stacks[lowestKey][--stackSizes[lowestKey]];
+	}
+	
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	
+	public int size() {
+		return size;
+	}
+}
@@ -0,0 +1,306 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The <code>ExactCoverSearch</code> class solves a Board as an exact cover problem, using
+ * Knuth's Algorithm X with Dancing Links. Every empty cell on the front and every empty cell
+ * on the back is a column that has to be covered exactly once, and every remaining piece is
+ * a column that can be covered at most once. Every placement of a remaining piece that fits
+ * on the board is a row, covering the cells it fills and its piece.
+ * <br>
+ * The links are stored in int arrays instead of node objects. Node 0 is the root, nodes
+ * 1 to numColumns are the column headers, and the rest are the ones in the rows.
+ * <br>
+ * The covered cells and placed pieces are kept up to date as rows are chosen, so a partial cover
+ * that was searched and failed can be put in a NogoodCache and not searched again when the same
+ * cells are covered by the same pieces in a different order.
+ *
+ * @author Jordan Turley
+ * @author Will Edwards
+ */
+public class ExactCoverSearch {
+	private static final int ROOT = 0;
+	
+	//Column numbers, before adding 1 for the header node
+	private static final int FRONT_COLUMNS = 0;
+	private static final int BACK_COLUMNS = Board.NUM_CELLS;
+	private static final int PIECE_COLUMNS = 2 * Board.NUM_CELLS;
+	private static final int NUM_COLUMNS = PIECE_COLUMNS + Piece.NUM_PIECES;
+	
+	private int[] left;
+	private int[] right;
+	private int[] up;
+	private int[] down;
+	private int[] column;
+	private int[] row;
+	private int[] columnSize;
+	private int numNodes;
+	
+	private ArrayList<Placement> rows;
+	private int[] solution;
+	private int depth;
+	
+	private SearchOptions options;
+	private int startPieces;
+	private NogoodCache nogoods;
+	private long frontMask;
+	private long backMask;
+	private int placedPieces;
+	private long expanded;
+	private long generated;
+	private int maxDepth;
+	
+	/**
+	 * Builds the exact cover matrix for a board
+	 * @param start The board to solve
+	 * @param options The settings to use for the search
+	 */
+	public ExactCoverSearch(Board start, SearchOptions options) {
+		this.options = options;
+		frontMask = start.getFrontMask();
+		backMask = start.getBackMask();
+		placedPieces = start.getPlacedPieces();
+		startPieces = Integer.bitCount(start.getPlacedPieces());
+		
+		//Find every row first, so the arrays can be sized
+		rows = new ArrayList<Placement>();
+		int numOnes = 0;
+		for (int pieceNum = 0; pieceNum < Piece.NUM_PIECES; pieceNum++) {
+			if (start.isPlaced(pieceNum)) {
+				continue;
+			}
+			for (Placement placement : Placement.forPiece(pieceNum)) {
+				if (start.canPlace(placement) == Board.PLACE_OK) {
+					rows.add(placement);
+					numOnes += Long.bitCount(placement.getFrontMask()) + Long.bitCount(placement.getBackMask()) + 1;
+				}
+			}
+		}
+		
+		int size = NUM_COLUMNS + 1 + numOnes;
+		left = new int[size];
+		right = new int[size];
+		up = new int[size];
+		down = new int[size];
+		column = new int[size];
+		row = new int[size];
+		columnSize = new int[NUM_COLUMNS + 1];
+		
+		//Only the columns of empty cells go in the header list. Cells that are already covered
+		//never have a one in them, and the piece columns are optional.
+		left[ROOT] = ROOT;
+		right[ROOT] = ROOT;
+		for (int c = 1; c <= NUM_COLUMNS; c++) {
+			up[c] = c;
+			down[c] = c;
+			column[c] = c;
+			left[c] = c;
+			right[c] = c;
+			if (isRequired(start, c - 1)) {
+				left[c] = left[ROOT];
+				right[c] = ROOT;
+				right[left[ROOT]] = c;
+				left[ROOT] = c;
+			}
+		}
+		numNodes = NUM_COLUMNS + 1;
+		
+		for (int r = 0; r < rows.size(); r++) {
+			Placement placement = rows.get(r);
+			int first = -1;
+			long front = placement.getFrontMask();
+			while (front != 0) {
+				first = addNode(r, FRONT_COLUMNS + Long.numberOfTrailingZeros(front), first);
+				front &= front - 1;
+			}
+			long back = placement.getBackMask();
+			while (back != 0) {
+				first = addNode(r, BACK_COLUMNS + Long.numberOfTrailingZeros(back), first);
+				back &= back - 1;
+			}
+			addNode(r, PIECE_COLUMNS + placement.getPieceIndex(), first);
+		}
+		
+		solution = new int[Piece.NUM_PIECES];
+		depth = 0;
+	}
+	
+	/**
+	 * Solves the board
+	 * @return A List of Action objects to represent the moves to a solved board,
+	 * or null if there is no solution
+	 */
+	public List<Action> solve() {
+		expanded = 0;
+		generated = 0;
+		maxDepth = 0;
+		nogoods = NogoodCache.withMemoryLimit(options.getNogoodCacheMegabytes());
+		boolean found;
+		try {
+			found = search();
+		} finally {
+			if (options.getStats() != null) {
+				options.getStats().record(expanded, generated, maxDepth);
+			}
+		}
+		return found ? getPath() : null;
+	}
+	
+	/**
+	 * Gets the actions for the rows chosen so far, in the same order as Board.solve
+	 * @return The actions from the last row back to the first
+	 */
+	private List<Action> getPath() {
+		ArrayList<Action> path = new ArrayList<Action>();
+		for (int i1 = depth - 1; i1 >= 0; i1--) {
+			path.add(rows.get(solution[i1]).toAction());
+		}
+		return path;
+	}
+	
+	/**
+	 * Algorithm X, choosing the column with the fewest rows each time
+	 * @return True if every required column was covered
+	 */
+	private boolean search() {
+		if (right[ROOT] == ROOT) {
+			return true;
+		}
+		
+		int best = right[ROOT];
+		for (int c = right[best]; c != ROOT; c = right[c]) {
+			if (columnSize[c] < columnSize[best]) {
+				best = c;
+			}
+		}
+		if (columnSize[best] == 0) {
+			return false;
+		}
+		long cells = 0;
+		if (nogoods != null) {
+			cells = Board.getSearchCells(frontMask, backMask, options);
+			if (nogoods.contains(cells, placedPieces)) {
+				return false;
+			}
+		}
+		
+		SearchControl control = options.getControl();
+		if (control != null) {
+			control.check();
+			if (depth > 0 && control.isBetterPartial(startPieces + depth)) {
+				control.offerPartial(startPieces + depth, getPath());
+			}
+		}
+		
+		expanded++;
+		maxDepth = Math.max(maxDepth, depth);
+		cover(best);
+		for (int r = down[best]; r != best; r = down[r]) {
+			generated++;
+			solution[depth++] = row[r];
+			toggleCells(rows.get(row[r]));
+			for (int j = right[r]; j != r; j = right[j]) {
+				cover(column[j]);
+			}
+			if (search()) {
+				return true;
+			}
+			for (int j = left[r]; j != r; j = left[j]) {
+				uncover(column[j]);
+			}
+			toggleCells(rows.get(row[r]));
+			depth--;
+		}
+		uncover(best);
+		if (nogoods != null) {
+			nogoods.add(cells, placedPieces);
+		}
+		return false;
+	}
+	
+	/**
+	 * Adds a placement to the covered cells and placed pieces, or takes it out if it is already in them
+	 */
+	private void toggleCells(Placement placement) {
+		frontMask ^= placement.getFrontMask();
+		backMask ^= placement.getBackMask();
+		placedPieces ^= 1 << placement.getPieceIndex();
+	}
+	
+	/**
+	 * Removes a column from the header list, and every row with a one in it from the other columns
+	 */
+	private void cover(int c) {
+		right[left[c]] = right[c];
+		left[right[c]] = left[c];
+		for (int i = down[c]; i != c; i = down[i]) {
+			for (int j = right[i]; j != i; j = right[j]) {
+				down[up[j]] = down[j];
+				up[down[j]] = up[j];
+				columnSize[column[j]]--;
+			}
+		}
+	}
+	
+	/**
+	 * Puts back a column removed by cover, in the reverse order
+	 */
+	private void uncover(int c) {
+		for (int i = up[c]; i != c; i = up[i]) {
+			for (int j = left[i]; j != i; j = left[j]) {
+				columnSize[column[j]]++;
+				down[up[j]] = j;
+				up[down[j]] = j;
+			}
+		}
+		right[left[c]] = c;
+		left[right[c]] = c;
+	}
+	
+	/**
+	 * Adds a one to the matrix, at the bottom of its column and the end of its row
+	 * @param r The row number
+	 * @param c The column number, before adding 1 for the header node
+	 * @param first The first node in the row, or -1 if this is the first
+	 * @return The first node in the row
+	 */
+	private int addNode(int r, int c, int first) {
+		int header = c + 1;
+		int node = numNodes++;
+		column[node] = header;
+		row[node] = r;
+		
+		up[node] = up[header];
+		down[node] = header;
+		down[up[header]] = node;
+		up[header] = node;
+		columnSize[header]++;
+		
+		if (first == -1) {
+			left[node] = node;
+			right[node] = node;
+			return node;
+		}
+		left[node] = left[first];
+		right[node] = first;
+		right[left[first]] = node;
+		left[first] = node;
+		return first;
+	}
+	
+	/**
+	 * Checks if a column has to be covered for the board to be solved
+	 * @param board The board being solved
+	 * @param c The column number, before adding 1 for the header node
+	 * @return True if the column is an empty cell on the front or back
+	 */
+	private static boolean isRequired(Board board, int c) {
+		if (c < BACK_COLUMNS) {
+			return (board.getFrontMask() & (1L << (c - FRONT_COLUMNS))) == 0;
+		}
+		if (c < PIECE_COLUMNS) {
+			return (board.getBackMask() & (1L << (c - BACK_COLUMNS))) == 0;
+		}
+		return false;
+	}
+}
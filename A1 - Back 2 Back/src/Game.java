@@ -1,15 +1,57 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * The <code>Game</code> class is used for a user to play the Back 2 Back game.
  * It gets input from the user, such as to show the board, or place a piece on the board,
  * and executes that action.
+ * <br>
+ * Every time the board changes, a solve is started in the background, so the 'hint' command
+ * can answer straight away: with the next move of the solution if it has been found, or the
+ * most promising move so far if the search is still running. The solutions are kept in a
+ * SolutionCache, so a board that was solved before, in this game or an earlier one, is one lookup.
  * 
  * @author Jordan Turley
  */
 public class Game {
-	public static void main(String[] args) {
+	//How long the background search for a hint runs before giving up
+	private static final long HINT_TIMEOUT_MILLIS = 60000;
+	//How long to wait on exit for the cancelled search to stop
+	private static final long HINT_STOP_MILLIS = 5000;
+	
+	private static ExecutorService hintExecutor;
+	private static SearchControl hintControl;
+	private static CompletableFuture<List<Action>> hintFuture;
+	private static SolutionCache solutionCache;
+	
+	public static void main(String[] args) throws InterruptedException {
 		Board board = new Board();
+		hintExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "Hint search");
+				//Do not keep the program running after 'exit'
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		try {
+			solutionCache = SolutionCache.open(new File(SolutionCache.DEFAULT_FILE));
+		} catch (IOException e) {
+			System.err.println("Hints will not be saved, the solution cache could not be opened: " + e.getMessage());
+		}
+		startHint(board);
+		//The orientation the user has turned each piece to. Pieces do not change,
+		//so rotating one replaces it here with its next orientation.
+		Piece[] pieces = Piece.ALL_PIECES.clone();
 		
 		Scanner scanner = new Scanner(System.in);
 		
@@ -27,7 +69,12 @@ public class Game {
 			if (firstInput.equals("board")) {
 				System.out.println(board);
 			} else if (firstInput.equals("pieces")) {
-				board.printPieces();
+				for (Piece piece : pieces) {
+					if (!board.isPlaced(piece.getIndex())) {
+						System.out.println("Piece " + (piece.getIndex() + 1) + ":");
+						System.out.println(piece);
+					}
+				}
 			} else if (firstInput.equals("piece")) {
 				if (inputParts.length != 2) {
 					errMsg();
@@ -43,13 +90,14 @@ public class Game {
 					errMsg("The piece number was not recognized.");
 					continue;
 				}
-				System.out.println(Piece.ALL_PIECES[pieceNum]);
+				System.out.println(pieces[pieceNum]);
 			} else if (firstInput.equals("flipboard")) {
 				board.switchSide();
 				System.out.println("Board flipped:");
 				System.out.println(board);
 			} else if (firstInput.equals("clear")) {
 				board.clearBoard();
+				startHint(board);
 				System.out.println("Board cleared");
 			} else if (firstInput.equals("place")) {
 				if (inputParts.length != 3) {
@@ -66,7 +114,7 @@ public class Game {
 					errMsg("The piece number was not valid.");
 					continue;
 				}
-				Piece piece = Piece.ALL_PIECES[pieceNum];
+				Piece piece = pieces[pieceNum];
 				
 				String xyLoc = inputParts[2];
 				String[] xy = xyLoc.split(",");
@@ -84,12 +132,15 @@ public class Game {
 				int y = Integer.parseInt(yStr) - 1;
 				try {
 					board.addPiece(piece, x, y);
+					startHint(board);
 					System.out.println("Piece placed.");
 				} catch (IllegalArgumentException e) {
 					errMsg(e.getMessage());
 				}
+			} else if (firstInput.equals("hint")) {
+				printHint(board);
 			} else if (firstInput.equals("colorkeys")) {
-				Piece.printColorKeys();
+				printColorKeys();
 			} else if (firstInput.equals("rotate")) {
 				if (inputParts.length != 2) {
 					errMsg();
@@ -105,20 +156,115 @@ public class Game {
 					errMsg("The piece number was not recognized.");
 					continue;
 				}
-				try {
-					Piece.ALL_PIECES[pieceNum].rotate();
-					System.out.println("Piece " + pieceNumStr + " rotated.");
-				} catch (IllegalStateException e) {
-					errMsg(e.getMessage());
+				if (board.isPlaced(pieceNum)) {
+					errMsg("This piece cannot be rotated, it is already placed on the board.");
+					continue;
 				}
+				pieces[pieceNum] = pieces[pieceNum].rotated();
+				System.out.println("Piece " + pieceNumStr + " rotated.");
 			} else if (!firstInput.equals("exit")) {
 				errMsg();
 			}
 		} while (!input.equals("exit"));
 		
+		hintFuture.cancel(false);
+		hintExecutor.shutdown();
+		//The search checks its control for every node, so it stops soon after it is cancelled
+		hintExecutor.awaitTermination(HINT_STOP_MILLIS, TimeUnit.MILLISECONDS);
+		if (solutionCache != null) {
+			if (solutionCache.getWriteFailures() > 0) {
+				System.err.println("Some hints could not be written to the solution cache journal, they are saved when the cache is closed.");
+			}
+			try {
+				solutionCache.close();
+			} catch (IOException e) {
+				System.err.println("The solution cache could not be saved: " + e.getMessage());
+			}
+		}
 		scanner.close();
 	}
 	
+	/**
+	 * Stops the search for the last board, and starts one for the board as it is now
+	 * @param board The board to find a hint for
+	 */
+	private static void startHint(Board board) {
+		if (hintFuture != null) {
+			hintFuture.cancel(false);
+		}
+		hintControl = new SearchControl(HINT_TIMEOUT_MILLIS);
+		SearchOptions options = new SearchOptions();
+		options.setBranching(SearchOptions.Branching.CELL_ANCHORED);
+		options.setControl(hintControl);
+		options.setSolutionCache(solutionCache);
+		hintFuture = board.solveAsync(options, hintExecutor);
+	}
+	
+	/**
+	 * Prints the next move of the solution the background search found, or the most
+	 * promising move so far if it has not found one, without waiting for it
+	 * @param board The board the hint is for, to search again if the search was cancelled
+	 */
+	private static void printHint(Board board) {
+		if (hintFuture.isCancelled()) {
+			//The search was stopped without the board changing, so start it again
+			startHint(board);
+		}
+		
+		boolean timedOut = false;
+		if (hintFuture.isDone()) {
+			try {
+				List<Action> actions = hintFuture.join();
+				if (actions == null) {
+					System.out.println("The board cannot be solved from here. Try 'clear' to start again.");
+				} else if (actions.isEmpty()) {
+					System.out.println("The board is already solved.");
+				} else {
+					//The actions go from the last move back to the first
+					printMove("Hint:", actions.get(actions.size() - 1));
+				}
+				return;
+			} catch (CompletionException e) {
+				if (!(e.getCause() instanceof TimeoutException)) {
+					System.err.println("The search for a hint failed: " + e.getCause().getMessage());
+					return;
+				}
+				//Fall through to the most promising move so far
+				timedOut = true;
+			}
+		}
+		
+		List<Action> partial = hintControl.getBestPartial();
+		if (partial != null) {
+			String status = timedOut ? "The search for a hint ran out of time."
+					: "Still searching for a hint.";
+			printMove(status + " The most promising move so far:", partial.get(partial.size() - 1));
+		} else if (timedOut) {
+			System.out.println("The search for a hint ran out of time.");
+		} else {
+			System.out.println("Still searching for a hint, try again in a moment.");
+		}
+	}
+	
+	/**
+	 * Prints a move with the number of its piece, as used by the other commands
+	 */
+	private static void printMove(String title, Action action) {
+		System.out.println(title);
+		System.out.println("Piece " + (action.getPiece().getIndex() + 1) + ":");
+		System.out.println(action);
+	}
+	
+	/**
+	 * Prints out all of the color char codes and the actual String for that color
+	 */
+	private static void printColorKeys() {
+		for (Character key : Piece.COLOR_DICTIONARY.keySet()) {
+			String color = Piece.COLOR_DICTIONARY.get(key);
+			System.out.println(key + ": " + color);
+		}
+	}
+	
 	private static void printInstructions() {
 		System.out.println("How to use:");
 		System.out.println("'board' to print the board");
@@ -131,6 +277,7 @@ public class Game {
 		System.out.println("(the top left of the board is (1,1), one to the right is (2, 1)...)");
 		System.out.println("'colorkeys' to print out the piece color-key and it's actual color");
 		System.out.println("'rotate [piece number]' to rotate that piece 90 degrees to the right");
+		System.out.println("'hint' to show the next move of a solution from the board");
 		System.out.println("'exit' to exit program");
 		System.out.println();
 	}
@@ -0,0 +1,90 @@
+import java.util.Arrays;
+
+/**
+ * The <code>HeapOpenList</code> class is an open list that is a binary heap of longs, each
+ * packing a node's function cost, its tie break and its index in the arena, so the heap holds
+ * no objects and comparing two entries is comparing two longs. Adding and removing nodes take
+ * O(log n) time.
+ * <br>
+ * Costs are stored as twice their value. The lowest cost comes out first, and between equal
+ * costs the lowest tie break, then the node added first.
+ *
+ * @author Jordan Turley
+ * @author Will Edwards
+ */
+public class HeapOpenList implements OpenList {
+	private static final int INITIAL_CAPACITY = 1 << 12;
+	
+	//Bits of each entry for the doubled cost and tie break, above the 32 bits of the index.
+	//The sign bit is left clear so entries compare in order.
+	private static final int FIELD_BITS = 15;
+	private static final int FIELD_MAX = (1 << FIELD_BITS) - 1;
+	private static final int TIE_SHIFT = 32;
+	private static final int COST_SHIFT = TIE_SHIFT + FIELD_BITS;
+	
+	private long[] heap;
+	private int size;
+	
+	/**
+	 * Creates a new empty open list
+	 */
+	public HeapOpenList() {
+		heap = new long[INITIAL_CAPACITY];
+		size = 0;
+	}
+	
+	public void add(int index, double cost, double tieBreak) {
+		if (size == heap.length) {
+			heap = Arrays.copyOf(heap, heap.length * 2);
+		}
+		long entry = (long) OpenList.halves(cost, FIELD_MAX) << COST_SHIFT
+				| (long) OpenList.halves(tieBreak, FIELD_MAX) << TIE_SHIFT | index;
+		
+		//Move the entry up past every parent that is higher
+		int position = size++;
+		while (position > 0) {
+			int parent = (position - 1) >>> 1;
+			if (heap[parent] <= entry) {
+				break;
+			}
+			heap[position] = heap[parent];
+			position = parent;
+		}
+		heap[position] = entry;
+	}
+	
+	public int remove() throws IllegalStateException {
+		if (size == 0) {
+			throw new IllegalStateException("The open list is empty.");
+		}
+		int index = (int) heap[0];
+		long last = heap[--size];
+		
+		//Move the last entry down from the top past every child that is lower
+		int position = 0;
+		while (true) {
+			int child = 2 * position + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && heap[child + 1] < heap[child]) {
+				child++;
+			}
+			if (last <= heap[child]) {
+				break;
+			}
+			heap[position] = heap[child];
+			position = child;
+		}
+		heap[position] = last;
+		return index;
+	}
+	
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	
+	public int size() {
+		return size;
+	}
+}
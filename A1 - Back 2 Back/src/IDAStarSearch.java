@@ -0,0 +1,158 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The <code>IDAStarSearch</code> class solves a Board with iterative deepening A* (IDA*).
+ * It runs depth-first searches that cut off any board whose function cost is over a bound,
+ * raising the bound to the lowest cost that was cut off each time. It uses one copy of the
+ * board, placing pieces and undoing them as it goes, so memory only grows with the depth.
+ * <br>
+ * A board whose whole subtree was searched without any board being cut off by the bound has
+ * no solution at any bound, so it is put in a NogoodCache and not searched again.
+ *
+ * @author Jordan Turley
+ * @author Will Edwards
+ */
+public class IDAStarSearch {
+	private Board board;
+	private SearchOptions options;
+	private int startMoves;
+	private double nextBound;
+	
+	private SearchStats stats;
+	private int maxDepth;
+	
+	private NogoodCache nogoods;
+	//The number of boards cut off by the bound that the heuristic did not find unsolvable
+	private long boundCutoffs;
+	
+	/**
+	 * Creates a new IDA* search. The board is copied, so it is not changed by solving.
+	 * @param start The board to solve
+	 * @param options The settings to use for the search
+	 */
+	public IDAStarSearch(Board start, SearchOptions options) {
+		board = (Board) start.clone();
+		this.options = options;
+		startMoves = board.getMoveCount();
+	}
+	
+	/**
+	 * Solves the board
+	 * @return A List of Action objects to represent the moves to a solved board,
+	 * or null if there is no solution
+	 */
+	public List<Action> solve() {
+		stats = options.getStats();
+		maxDepth = 0;
+		nogoods = NogoodCache.withMemoryLimit(options.getNogoodCacheMegabytes());
+		boundCutoffs = 0;
+		double bound = board.heuristic(options);
+		boolean found = false;
+		//An infinite bound means the heuristic found the board cannot be solved
+		while (bound != Double.POSITIVE_INFINITY) {
+			nextBound = Double.POSITIVE_INFINITY;
+			found = search(0, bound);
+			if (found || nextBound == Double.POSITIVE_INFINITY) {
+				//Either solved, or nothing was cut off so every board has been searched
+				break;
+			}
+			bound = nextBound;
+		}
+		
+		if (stats == null) {
+			return found ? getPath() : null;
+		}
+		stats.recordFrontierSize(maxDepth);
+		if (!found) {
+			return null;
+		}
+		List<Action> path = getPath();
+		recordPathErrors();
+		return path;
+	}
+	
+	/**
+	 * Searches below the current board, cutting off boards over the bound
+	 * @param pathCost The path cost to the current board
+	 * @param bound The highest function cost to search
+	 * @return True if a solved board was found
+	 */
+	private boolean search(double pathCost, double bound) {
+		double functionCost = pathCost + board.heuristic(options);
+		if (functionCost > bound) {
+			nextBound = Math.min(nextBound, functionCost);
+			if (functionCost != Double.POSITIVE_INFINITY) {
+				boundCutoffs++;
+			}
+			return false;
+		}
+		if (board.isSolved()) {
+			return true;
+		}
+		long cells = 0;
+		if (nogoods != null) {
+			cells = board.getSearchCells(options);
+			if (nogoods.contains(cells, board.getPlacedPieces())) {
+				return false;
+			}
+		}
+		long cutoffsBefore = boundCutoffs;
+		
+		int depth = board.getMoveCount() - startMoves;
+		SearchControl control = options.getControl();
+		if (control != null) {
+			control.check();
+			int pieces = Integer.bitCount(board.getPlacedPieces());
+			if (depth > 0 && control.isBetterPartial(pieces)) {
+				control.offerPartial(pieces, getPath());
+			}
+		}
+		maxDepth = Math.max(maxDepth, depth);
+		List<Placement> moves = board.getMoves(options);
+		if (stats != null) {
+			stats.recordExpansion(depth, moves.size());
+		}
+		for (Placement placement : moves) {
+			board.place(placement);
+			if (search(pathCost + placement.getCost(), bound)) {
+				return true;
+			}
+			board.undo();
+		}
+		
+		//Nothing below was cut off by the bound, so no bound could find a solution here
+		if (nogoods != null && boundCutoffs == cutoffsBefore) {
+			nogoods.add(cells, board.getPlacedPieces());
+		}
+		return false;
+	}
+	
+	/**
+	 * Undoes the moves on the stack back to the start, comparing the estimate on each board
+	 * to the cost that was really left. The path must be read before this.
+	 */
+	private void recordPathErrors() {
+		double costLeft = 0;
+		while (true) {
+			stats.recordHeuristicError(board.heuristic(options) - costLeft);
+			if (board.getMoveCount() == startMoves) {
+				break;
+			}
+			costLeft += board.getMove(board.getMoveCount() - 1).getCost();
+			board.undo();
+		}
+	}
+	
+	/**
+	 * Gets the actions for the moves on the stack, in the same order as Board.solve
+	 * @return The actions from the last move back to the first
+	 */
+	private List<Action> getPath() {
+		ArrayList<Action> path = new ArrayList<Action>();
+		for (int i1 = board.getMoveCount() - 1; i1 >= startMoves; i1--) {
+			path.add(board.getMove(i1).toAction());
+		}
+		return path;
+	}
+}
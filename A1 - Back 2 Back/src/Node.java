@@ -1,40 +1,107 @@
-
 /**
- * The <code>Node</code> class is used to store the current state of the Board,
- * the parent Node, the Action that got us here, and the path cost to this node.
- * 
+ * The <code>Node</code> class is used to store the state of the Board, the parent Node,
+ * the placement that got us here, and the path cost to this node.
+ * <br>
+ * The state is a snapshot of the board's masks and placed pieces, not a copy of the Board.
+ * The search places and removes pieces on one working Board, and loads a node's snapshot
+ * into it with Board.restore when the node is expanded.
+ *
  * @author Jordan Turley
  * @author Will Edwards
  */
 public class Node implements Comparable<Node> {
-	private Board state;
+	private long frontMask;
+	private long backMask;
+	private int placedPieces;
+	private long zobristKey;
+	private long mirrorKey;
+	
 	private Node parent;
-	private Action action;
+	private Placement placement;
 	private double pathCost;
 	
-	public Node(Board state, Node parent, Action action, double pathCost) {
-		this.state = state;
+	/**
+	 * Creates a new Node with a snapshot of the board as it is now
+	 * @param state The board to take the snapshot of
+	 * @param parent The node this one was expanded from, or null for the start
+	 * @param placement The placement that led here from the parent, or null for the start
+	 * @param pathCost The path cost to this node
+	 */
+	public Node(Board state, Node parent, Placement placement, double pathCost) {
+		frontMask = state.getFrontMask();
+		backMask = state.getBackMask();
+		placedPieces = state.getPlacedPieces();
+		zobristKey = state.getZobristKey();
+		mirrorKey = state.getMirrorKey();
 		this.parent = parent;
-		this.action = action;
+		this.placement = placement;
 		this.pathCost = pathCost;
 	}
 	
-	public Board getState() {
-		return state;
+	public long getFrontMask() {
+		return frontMask;
+	}
+	
+	public long getBackMask() {
+		return backMask;
+	}
+	
+	public int getPlacedPieces() {
+		return placedPieces;
+	}
+	
+	public long getZobristKey() {
+		return zobristKey;
+	}
+	
+	public long getMirrorKey() {
+		return mirrorKey;
+	}
+	
+	/**
+	 * Gets the key a closed set stores this node's state under, the same as Board.getSearchKey
+	 * @param options The settings, to check if symmetric boards are pruned
+	 * @return The lower of the Zobrist and mirror hashes if they are, or the Zobrist hash if not
+	 */
+	public long getSearchKey(SearchOptions options) {
+		return options.getPruneSymmetry() ? Math.min(zobristKey, mirrorKey) : zobristKey;
+	}
+	
+	/**
+	 * Gets the cells a closed set stores this node's state under, the same as Board.getSearchCells
+	 * @param options The settings, to check if symmetric boards are pruned
+	 * @return The packed cells
+	 */
+	public long getSearchCells(SearchOptions options) {
+		return Board.getSearchCells(frontMask, backMask, options);
+	}
+	
+	/**
+	 * @return True if every cell is covered on both the front and the back
+	 */
+	public boolean isSolved() {
+		return frontMask == Board.FULL_MASK && backMask == Board.FULL_MASK;
 	}
 	
 	public Node getParent() {
 		return parent;
 	}
 	
+	public Placement getPlacement() {
+		return placement;
+	}
+	
+	/**
+	 * @return The Action that led here from the parent, or null for the start
+	 */
 	public Action getAction() {
-		return action;
+		return placement == null ? null : placement.toAction();
 	}
 	
 	public double getPathCost() {
 		return pathCost;
 	}
-
+	
 	public int compareTo(Node node) {
 		if (pathCost < node.getPathCost()) {
 			return -1;
@@ -0,0 +1,151 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The <code>NodeArena</code> class stores the search nodes of A* in primitive arrays instead of
+ * one Node object each. A node is an int index into the arena, and has the front and back masks
+ * of its board, its parent's index, and one int packing the placed pieces, the path cost and the
+ * move code of the placement that led to it (see Placement.getMoveCode). That is 24 bytes a node,
+ * where a Node and its NodeCost take around a hundred, so many more nodes fit in memory.
+ * <br>
+ * The Zobrist hashes are not stored, since they can be worked out from the masks and placed
+ * pieces when a node is loaded back into a board with Board.restore. Nodes are never removed,
+ * so the parent indexes stay valid and the path to a node can always be read back.
+ *
+ * @author Jordan Turley
+ * @author Will Edwards
+ */
+public class NodeArena {
+	private static final int INITIAL_CAPACITY = 1 << 12;
+	
+	//The parent of the start node
+	public static final int NO_PARENT = -1;
+	
+	//How the placed pieces, path cost and move code are packed into one int. The move code
+	//is stored plus one, so 0 means there was no placement.
+	private static final int PLACED_BITS = Piece.NUM_PIECES;
+	private static final int PLACED_MASK = (1 << PLACED_BITS) - 1;
+	private static final int COST_SHIFT = PLACED_BITS;
+	private static final int COST_BITS = 7;
+	private static final int COST_MASK = (1 << COST_BITS) - 1;
+	private static final int MOVE_SHIFT = COST_SHIFT + COST_BITS;
+	
+	private long[] frontMasks;
+	private long[] backMasks;
+	private int[] parents;
+	private int[] packed;
+	private int size;
+	
+	/**
+	 * Creates a new empty arena
+	 */
+	public NodeArena() {
+		frontMasks = new long[INITIAL_CAPACITY];
+		backMasks = new long[INITIAL_CAPACITY];
+		parents = new int[INITIAL_CAPACITY];
+		packed = new int[INITIAL_CAPACITY];
+		size = 0;
+	}
+	
+	/**
+	 * Adds a node with the state of a board
+	 * @param board The board to store the state of
+	 * @param parent The index of the node this one was expanded from, or NO_PARENT for the start
+	 * @param placement The placement that led here from the parent, or null for the start
+	 * @param pathCost The path cost to this node. Piece costs are whole numbers of pegs, so it is too.
+	 * @return The index of the new node
+	 * @throws IllegalArgumentException If the path cost is too high to store
+	 * @throws IllegalStateException If the arena is full
+	 */
+	public int add(Board board, int parent, Placement placement, int pathCost)
+			throws IllegalArgumentException, IllegalStateException {
+		if (pathCost < 0 || pathCost > COST_MASK) {
+			throw new IllegalArgumentException("The path cost " + pathCost + " cannot be stored.");
+		}
+		if (size == frontMasks.length) {
+			grow();
+		}
+		int index = size++;
+		frontMasks[index] = board.getFrontMask();
+		backMasks[index] = board.getBackMask();
+		parents[index] = parent;
+		int moveCode = placement == null ? 0 : placement.getMoveCode() + 1;
+		packed[index] = board.getPlacedPieces() | pathCost << COST_SHIFT | moveCode << MOVE_SHIFT;
+		return index;
+	}
+	
+	/**
+	 * Makes the arrays half as big again, since searches can go on for a long time
+	 * @throws IllegalStateException If the arena cannot hold more nodes
+	 */
+	private void grow() throws IllegalStateException {
+		if (frontMasks.length == Integer.MAX_VALUE) {
+			throw new IllegalStateException("The node arena is full.");
+		}
+		int capacity = (int) Math.min(Integer.MAX_VALUE, frontMasks.length + (long) (frontMasks.length >> 1));
+		frontMasks = Arrays.copyOf(frontMasks, capacity);
+		backMasks = Arrays.copyOf(backMasks, capacity);
+		parents = Arrays.copyOf(parents, capacity);
+		packed = Arrays.copyOf(packed, capacity);
+	}
+	
+	/**
+	 * @return The number of nodes in the arena
+	 */
+	public int size() {
+		return size;
+	}
+	
+	public long getFrontMask(int index) {
+		return frontMasks[index];
+	}
+	
+	public long getBackMask(int index) {
+		return backMasks[index];
+	}
+	
+	public int getPlacedPieces(int index) {
+		return packed[index] & PLACED_MASK;
+	}
+	
+	public int getParent(int index) {
+		return parents[index];
+	}
+	
+	public int getPathCost(int index) {
+		return (packed[index] >>> COST_SHIFT) & COST_MASK;
+	}
+	
+	/**
+	 * @param index The index of a node
+	 * @return The placement that led to the node, or null for the start
+	 */
+	public Placement getPlacement(int index) {
+		int moveCode = packed[index] >>> MOVE_SHIFT;
+		return moveCode == 0 ? null : Placement.fromMoveCode(moveCode - 1);
+	}
+	
+	/**
+	 * @param index The index of a node
+	 * @return True if every cell is covered on both the front and the back
+	 */
+	public boolean isSolved(int index) {
+		return frontMasks[index] == Board.FULL_MASK && backMasks[index] == Board.FULL_MASK;
+	}
+	
+	/**
+	 * Gets the actions that led to a node, in the same order as Board.getPath
+	 * @param index The index of the node
+	 * @return The actions from the node back to the start
+	 */
+	public List<Action> getPath(int index) {
+		ArrayList<Action> path = new ArrayList<Action>();
+		Placement placement;
+		while (index != NO_PARENT && (placement = getPlacement(index)) != null) {
+			path.add(placement.toAction());
+			index = parents[index];
+		}
+		return path;
+	}
+}
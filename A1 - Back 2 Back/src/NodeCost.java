@@ -9,10 +9,22 @@
 public class NodeCost implements Comparable<NodeCost>{
 	private Node node;
 	private double cost;
+	private double tieBreak;
 	
 	public NodeCost(Node node, double cost) {
+		this(node, cost, 0);
+	}
+	
+	/**
+	 * Creates a new NodeCost
+	 * @param node The node
+	 * @param cost The function cost of the node
+	 * @param tieBreak Between nodes with the same cost, the one with the lower tie break comes first
+	 */
+	public NodeCost(Node node, double cost, double tieBreak) {
 		this.node = node;
 		this.cost = cost;
+		this.tieBreak = tieBreak;
 	}
 	
 	public Node getNode() {
@@ -23,11 +35,15 @@ public class NodeCost implements Comparable<NodeCost>{
 		return cost;
 	}
 	
+	public double getTieBreak() {
+		return tieBreak;
+	}
+	
 	public int compareTo(NodeCost nc) {
 		if (cost < nc.getCost()) {
 			return -1;
 		} else if (cost == nc.getCost()) {
-			return 0;
+			return Double.compare(tieBreak, nc.getTieBreak());
 		} else {
 			return 1;
 		}
@@ -0,0 +1,170 @@
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The <code>NogoodCache</code> class remembers states that the depth-first searches have
+ * proven cannot be solved, so when one is reached again under a different order of pieces
+ * it costs one lookup instead of searching the whole subtree again. States are stored whole,
+ * the covered cells on both sides and the placed pieces, so a state is only found if it is the
+ * same state. A hash could match a different state that can be solved, and prune its solution.
+ * <br>
+ * The table has a fixed size and never grows. It is split into buckets of BUCKET_SIZE entries,
+ * which fill one cache line. A full bucket evicts an entry with the clock algorithm: each entry
+ * has a bit that is set when it is found again, and a hand goes around the bucket clearing the
+ * bits it passes until it reaches one that was already clear, so states that keep coming up
+ * stay in. The cache is lossy, so a state that was evicted is only searched again.
+ * <br>
+ * Every entry is two longs: the cells, and a tag with the placed pieces, the clock bit, and a
+ * version that goes up each time the entry is replaced. A thread replacing an entry first locks
+ * its tag with compare-and-set, then writes the cells, then writes the new tag. A thread looking
+ * an entry up reads the tag, the cells and the tag again, and only trusts the cells if the tag
+ * did not change, so threads can share a cache without locking. A thread that loses a race for
+ * an entry drops its state, which only costs a search later.
+ *
+ * @author Jordan Turley
+ * @author Will Edwards
+ */
+public class NogoodCache {
+	private static final int BUCKET_SIZE = 4;
+	
+	//Bytes used by one entry, two longs
+	public static final int BYTES_PER_ENTRY = 16;
+	
+	//The bits of a tag. An entry that was never written has a tag of 0.
+	private static final long LOCKED = 1;
+	private static final long REFERENCED = 2;
+	private static final long OCCUPIED = 4;
+	private static final int PLACED_SHIFT = 3;
+	private static final long PLACED_MASK = ((1L << Piece.NUM_PIECES) - 1) << PLACED_SHIFT;
+	private static final int VERSION_SHIFT = PLACED_SHIFT + Piece.NUM_PIECES;
+	
+	//The cells of entry i are at 2 * i, and its tag at 2 * i + 1
+	private AtomicLongArray entries;
+	//Where the clock hand of each bucket is, from 0 to BUCKET_SIZE - 1
+	private AtomicIntegerArray hands;
+	private int bucketShift;
+	private int capacity;
+	
+	/**
+	 * Creates a new empty cache
+	 * @param maxEntries The most entries to keep. It is rounded down to a power of two.
+	 */
+	public NogoodCache(int maxEntries) {
+		capacity = Math.max(BUCKET_SIZE, Integer.highestOneBit(maxEntries));
+		int numBuckets = capacity / BUCKET_SIZE;
+		entries = new AtomicLongArray(2 * capacity);
+		hands = new AtomicIntegerArray(numBuckets);
+		bucketShift = 64 - Integer.numberOfTrailingZeros(numBuckets);
+	}
+	
+	/**
+	 * Creates a new cache that uses at most the given amount of memory
+	 * @param megabytes The memory limit in megabytes, or 0 for no cache
+	 * @return The new cache, or null if the limit is 0
+	 */
+	public static NogoodCache withMemoryLimit(int megabytes) {
+		if (megabytes <= 0) {
+			return null;
+		}
+		long maxEntries = (long) megabytes * 1024 * 1024 / BYTES_PER_ENTRY;
+		return new NogoodCache((int) Math.min(maxEntries, 1 << 29));
+	}
+	
+	/**
+	 * Checks if a state was proven to have no solution, and marks it as used if it was
+	 * @param cells The front mask, and the back mask shifted up by Board.NUM_CELLS.
+	 * See Board.getSearchCells.
+	 * @param placedPieces The placed pieces, one bit per piece
+	 * @return True if the state is in the cache
+	 */
+	public boolean contains(long cells, int placedPieces) {
+		int bucket = bucketOf(cells, placedPieces);
+		for (int i1 = 0; i1 < BUCKET_SIZE; i1++) {
+			int index = bucket + i1;
+			long tag = entries.get(2 * index + 1);
+			if (!matches(tag, placedPieces) || entries.get(2 * index) != cells) {
+				continue;
+			}
+			long tagAfter = entries.get(2 * index + 1);
+			if ((tagAfter & ~REFERENCED) != (tag & ~REFERENCED)) {
+				//The entry was replaced while it was read, so the cells may not be its own
+				continue;
+			}
+			if ((tagAfter & REFERENCED) == 0) {
+				//Losing this race only means the bit is not set this time
+				entries.compareAndSet(2 * index + 1, tagAfter, tagAfter | REFERENCED);
+			}
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Records that a state has no solution, evicting another state if its bucket is full
+	 * @param cells The front mask, and the back mask shifted up by Board.NUM_CELLS.
+	 * See Board.getSearchCells.
+	 * @param placedPieces The placed pieces, one bit per piece
+	 */
+	public void add(long cells, int placedPieces) {
+		int bucket = bucketOf(cells, placedPieces);
+		for (int i1 = 0; i1 < BUCKET_SIZE; i1++) {
+			int index = bucket + i1;
+			if (matches(entries.get(2 * index + 1), placedPieces) && entries.get(2 * index) == cells) {
+				return;
+			}
+		}
+		
+		//Go around the bucket from the hand. Each entry that was used gets a second chance, so
+		//within two times around there is an entry to replace, unless other threads are using
+		//the bucket too. Then the state is dropped, since the cache does not have to keep it.
+		int hand = hands.get(bucket / BUCKET_SIZE);
+		for (int i1 = 0; i1 < 2 * BUCKET_SIZE; i1++) {
+			int position = (hand + i1) & (BUCKET_SIZE - 1);
+			int index = bucket + position;
+			long tag = entries.get(2 * index + 1);
+			if ((tag & LOCKED) != 0) {
+				continue;
+			}
+			if ((tag & REFERENCED) == 0) {
+				if (entries.compareAndSet(2 * index + 1, tag, tag | LOCKED)) {
+					entries.set(2 * index, cells);
+					long version = (tag >>> VERSION_SHIFT) + 1;
+					entries.set(2 * index + 1, version << VERSION_SHIFT
+							| (long) placedPieces << PLACED_SHIFT | OCCUPIED);
+					hands.lazySet(bucket / BUCKET_SIZE, (position + 1) & (BUCKET_SIZE - 1));
+					return;
+				}
+			} else {
+				entries.compareAndSet(2 * index + 1, tag, tag & ~REFERENCED);
+			}
+		}
+	}
+	
+	/**
+	 * @return The number of states the cache can hold
+	 */
+	public int capacity() {
+		return capacity;
+	}
+	
+	/**
+	 * Checks if a tag is for a written entry, not being replaced, with the given placed pieces
+	 */
+	private static boolean matches(long tag, int placedPieces) {
+		return (tag & (LOCKED | OCCUPIED)) == OCCUPIED
+				&& (tag & PLACED_MASK) == (long) placedPieces << PLACED_SHIFT;
+	}
+	
+	/**
+	 * Gets the first index of the bucket a state belongs in, from the top bits of a hash of it
+	 */
+	private int bucketOf(long cells, int placedPieces) {
+		if (bucketShift == 64) {
+			return 0;
+		}
+		long hash = (cells ^ (long) placedPieces << 60 ^ placedPieces) * 0x9E3779B97F4A7C15L;
+		hash ^= hash >>> 29;
+		hash *= 0xBF58476D1CE4E5B9L;
+		return (int) (hash >>> bucketShift) * BUCKET_SIZE;
+	}
+}
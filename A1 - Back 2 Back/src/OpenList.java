@@ -0,0 +1,51 @@
+/**
+ * The <code>OpenList</code> interface is the frontier of the A* search in Board.solve: the nodes
+ * of a NodeArena that have been generated but not expanded yet, taken out lowest cost first.
+ * SearchOptions.Frontier chooses the implementation, so they can be compared.
+ * <br>
+ * Piece costs are whole numbers of pegs and the heuristics count whole and half cells, so every
+ * cost is a multiple of 0.5, and implementations store costs as twice their value.
+ *
+ * @author Jordan Turley
+ * @author Will Edwards
+ */
+public interface OpenList {
+	/**
+	 * Adds a node
+	 * @param index The index of the node in its arena
+	 * @param cost The function cost of the node, a multiple of 0.5
+	 * @param tieBreak Between nodes with the same cost, the one with the lower tie break comes
+	 * first. Also a multiple of 0.5.
+	 * @throws IllegalArgumentException If a cost is negative, too high, or not a multiple of 0.5
+	 */
+	void add(int index, double cost, double tieBreak) throws IllegalArgumentException;
+	
+	/**
+	 * Takes out a node with the lowest cost, and the lowest tie break of those
+	 * @return The index of the node in its arena
+	 * @throws IllegalStateException If the open list is empty
+	 */
+	int remove() throws IllegalStateException;
+	
+	boolean isEmpty();
+	
+	/**
+	 * @return The number of nodes in the open list
+	 */
+	int size();
+	
+	/**
+	 * Converts a cost to a whole number of halves
+	 * @param cost A cost that is a multiple of 0.5
+	 * @param max The highest number of halves the open list can store
+	 * @return Twice the cost
+	 * @throws IllegalArgumentException If the cost cannot be stored
+	 */
+	static int halves(double cost, int max) throws IllegalArgumentException {
+		long doubled = Math.round(cost * 2);
+		if (doubled < 0 || doubled > max || doubled != cost * 2) {
+			throw new IllegalArgumentException("The cost " + cost + " cannot be stored in the open list.");
+		}
+		return (int) doubled;
+	}
+}
@@ -0,0 +1,260 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The <code>ParallelSearch</code> class solves a Board with hash distributed A* (HDA*).
+ * Every worker thread has its own open list and closed set, and owns the states whose
+ * Zobrist hash maps to it. When a worker generates a child it owns, it adds it to its own
+ * open list. Otherwise it sends the child to the owner's mailbox, a lock-free queue the
+ * owner drains between expansions. Since each state has one owner, duplicates are still
+ * found without sharing a closed set between threads.
+ * <br>
+ * Termination is found by counting the nodes that are in an open list or a mailbox.
+ * A node's children are counted before the node itself is removed from the count, so it
+ * only reaches 0 when every open list and mailbox is empty and no worker is expanding.
+ * <br>
+ * Every piece costs the number of pegs it fills, so every solved board reached from the
+ * same start has the same path cost. The first goal any worker finds therefore has the
+ * same cost as the solution found by the sequential search.
+ *
+ * @author Jordan Turley
+ * @author Will Edwards
+ */
+public class ParallelSearch {
+	//How long an idle worker waits before checking its mailbox again
+	private static final long IDLE_WAIT_NANOS = 50000;
+	
+	private Board start;
+	private int numWorkers;
+	private SearchOptions options;
+	
+	private ArrayList<ConcurrentLinkedQueue<NodeCost>> mailboxes;
+	private AtomicLong openNodes;
+	private AtomicReference<Node> goal;
+	private volatile boolean done;
+	private volatile Throwable failure;
+	
+	/**
+	 * Creates a new parallel search
+	 * @param start The board to solve
+	 * @param options The settings to use, including the number of threads
+	 */
+	public ParallelSearch(Board start, SearchOptions options) {
+		this.start = start;
+		this.options = options;
+		numWorkers = options.getThreads();
+		
+		mailboxes = new ArrayList<ConcurrentLinkedQueue<NodeCost>>();
+		for (int i1 = 0; i1 < numWorkers; i1++) {
+			mailboxes.add(new ConcurrentLinkedQueue<NodeCost>());
+		}
+		openNodes = new AtomicLong();
+		goal = new AtomicReference<Node>();
+		done = false;
+	}
+	
+	/**
+	 * Solves the board, blocking until a solution is found or every state has been searched
+	 * @return A List of Action objects to represent the moves to a solved board,
+	 * or null if there is no solution
+	 * @throws CancellationException If the control in the options stopped the search,
+	 * or the calling thread was interrupted while waiting for the workers
+	 */
+	public List<Action> solve() throws CancellationException {
+		Node startNode = new Node(start, null, null, 0);
+		openNodes.incrementAndGet();
+		mailboxes.get(ownerOf(start.getSearchKey(options))).add(new NodeCost(startNode, 0));
+		
+		Thread[] threads = new Thread[numWorkers];
+		for (int i1 = 0; i1 < numWorkers; i1++) {
+			final int workerNum = i1;
+			final Board working = (Board) start.clone();
+			threads[i1] = new Thread(new Runnable() {
+				public void run() {
+					try {
+						runWorker(workerNum, working);
+					} catch (Throwable t) {
+						failure = t;
+						done = true;
+					}
+				}
+			}, "HDA* worker " + i1);
+			threads[i1].start();
+		}
+		
+		//If this thread is interrupted, stop the workers but still wait for them to finish
+		boolean interrupted = false;
+		for (Thread thread : threads) {
+			while (thread.isAlive()) {
+				try {
+					thread.join();
+				} catch (InterruptedException e) {
+					done = true;
+					interrupted = true;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException("The search was interrupted.");
+		}
+		
+		if (failure != null) {
+			throw new IllegalStateException("A search thread failed.", failure);
+		}
+		Node goalNode = goal.get();
+		if (goalNode == null) {
+			if (options.getControl() != null) {
+				options.getControl().check();
+			}
+			return null;
+		}
+		if (options.getStats() != null) {
+			//Go back up the solution, comparing each estimate to the cost that was really left
+			Board working = (Board) start.clone();
+			for (Node node = goalNode; node != null; node = node.getParent()) {
+				working.restore(node);
+				options.getStats().recordHeuristicError(working.heuristic(options)
+						- (goalNode.getPathCost() - node.getPathCost()));
+			}
+		}
+		return Board.getPath(goalNode);
+	}
+	
+	/**
+	 * Splits the closed set limit between the workers. It is split as entries, not megabytes,
+	 * so a limit smaller than one megabyte for each worker is not rounded down to no limit.
+	 * @return The most entries in each worker's closed set, or 0 for no limit
+	 */
+	private int getWorkerClosedSetEntries() {
+		int megabytes = options.getClosedSetMegabytes();
+		if (megabytes <= 0) {
+			return 0;
+		}
+		long entries = (long) megabytes * 1024 * 1024 / TranspositionTable.BYTES_PER_ENTRY / numWorkers;
+		return (int) Math.max(1, Math.min(entries, 1 << 30));
+	}
+	
+	/**
+	 * Expands nodes owned by one worker until the search is done
+	 * @param workerNum The index of the worker
+	 * @param working The worker's own copy of the board, to place and undo pieces on
+	 */
+	private void runWorker(int workerNum, Board working) {
+		PriorityQueue<NodeCost> open = new PriorityQueue<NodeCost>();
+		TranspositionTable closed = null;
+		if (options.getClosedSet()) {
+			closed = new TranspositionTable(getWorkerClosedSetEntries());
+		}
+		ConcurrentLinkedQueue<NodeCost> mailbox = mailboxes.get(workerNum);
+		SearchControl control = options.getControl();
+		
+		//Each worker counts into its own stats, which are added to the shared ones at the end
+		SearchStats stats = null;
+		if (options.getStats() != null) {
+			stats = new SearchStats();
+			if (options.getStats().getListener() != null) {
+				stats.setListener(options.getStats().getListener(), options.getStats().getSampleInterval());
+			}
+		}
+		int startPieces = Integer.bitCount(start.getPlacedPieces());
+		while (!done) {
+			//Take in the nodes other workers sent here
+			NodeCost received;
+			while ((received = mailbox.poll()) != null) {
+				Node node = received.getNode();
+				if (closed == null || closed.record(node.getSearchKey(options), node.getSearchCells(options),
+						node.getPlacedPieces(), node.getPathCost())) {
+					open.add(received);
+				} else {
+					openNodes.decrementAndGet();
+					if (stats != null) {
+						stats.recordDuplicate();
+					}
+				}
+			}
+			
+			NodeCost nc = open.poll();
+			if (nc == null) {
+				if (openNodes.get() == 0) {
+					//Every state has been searched
+					done = true;
+				} else {
+					LockSupport.parkNanos(IDLE_WAIT_NANOS);
+				}
+				continue;
+			}
+			
+			Node currentNode = nc.getNode();
+			if (closed != null && currentNode.getPathCost() > closed.getCost(currentNode.getSearchKey(options),
+					currentNode.getSearchCells(options), currentNode.getPlacedPieces())) {
+				//A cheaper path to this state was found after this node was added
+				openNodes.decrementAndGet();
+				if (stats != null) {
+					stats.recordDuplicate();
+				}
+				continue;
+			}
+			if (currentNode.isSolved()) {
+				goal.compareAndSet(null, currentNode);
+				done = true;
+				break;
+			}
+			if (control != null) {
+				if (control.isStopped()) {
+					//solve throws the CancellationException once every worker has stopped
+					done = true;
+					break;
+				}
+				int pieces = Integer.bitCount(currentNode.getPlacedPieces());
+				if (pieces > startPieces && control.isBetterPartial(pieces)) {
+					control.offerPartial(pieces, Board.getPath(currentNode));
+				}
+			}
+			
+			ArrayList<NodeCost> children = working.getChildren(currentNode, null, options);
+			for (NodeCost child : children) {
+				Node childNode = child.getNode();
+				long key = childNode.getSearchKey(options);
+				int owner = ownerOf(key);
+				if (owner == workerNum) {
+					if (closed == null || closed.record(key, childNode.getSearchCells(options),
+							childNode.getPlacedPieces(), childNode.getPathCost())) {
+						openNodes.incrementAndGet();
+						open.add(child);
+					} else if (stats != null) {
+						stats.recordDuplicate();
+					}
+				} else {
+					openNodes.incrementAndGet();
+					mailboxes.get(owner).add(child);
+				}
+			}
+			long frontier = openNodes.decrementAndGet();
+			if (stats != null) {
+				int depth = Integer.bitCount(currentNode.getPlacedPieces()) - startPieces;
+				stats.recordExpansion(depth, children.size());
+				stats.recordFrontierSize(frontier);
+			}
+		}
+		
+		if (stats != null) {
+			options.getStats().add(stats);
+		}
+	}
+	
+	/**
+	 * Gets the worker that owns a state
+	 * @param key The search key of the state, see Board.getSearchKey
+	 * @return The index of the worker
+	 */
+	private int ownerOf(long key) {
+		return (int) ((key >>> 33) % numWorkers);
+	}
+}
@@ -0,0 +1,124 @@
+import java.util.Arrays;
+
+/**
+ * The <code>PegKnapsack</code> class gives an admissible heuristic for the A* and IDA* searches,
+ * by checking if the remaining pieces have the right pegs to fill each side of the board.
+ * <br>
+ * Every piece fills the cells under its pegs and nothing else, so its cost is its number of pegs
+ * and the cost left to solve any board is exactly the number of empty cells, counting each side
+ * on its own. What is left to work out is if the remaining pieces can fill them at all. Each peg
+ * 2 deep fills a cell on both sides, so the pegs 2 deep of the pieces need that many cells empty
+ * on both sides. Each peg 1 deep fills a cell on the side its piece is placed from, so the pieces
+ * placed from the front must have exactly the pegs 1 deep to fill the rest of the front, and the
+ * others the rest of the back. That is a small knapsack over the remaining pieces.
+ * <br>
+ * The knapsack only depends on which pieces remain and how many cells are empty, so it is worked
+ * out once when the class is loaded, for every set of remaining pieces and every count of empty
+ * cells on the front and back. Checking a board, or a region of a board for RegionPruner, is then
+ * one lookup.
+ *
+ * @author Jordan Turley
+ * @author Will Edwards
+ */
+public class PegKnapsack {
+	private static final int NUM_SETS = 1 << Piece.NUM_PIECES;
+	private static final int COUNTS = Board.NUM_CELLS + 1;
+	private static final byte IMPOSSIBLE = Byte.MAX_VALUE;
+	
+	//For each set of pieces, and each count of empty cells on the front and back, the fewest
+	//cells empty on both sides that some of the pieces can fill them with, or IMPOSSIBLE
+	private static final byte[][] MIN_BOTH_EMPTY = new byte[NUM_SETS][COUNTS * COUNTS];
+	static {
+		int[] twoDeep = new int[Piece.NUM_PIECES];
+		int[] oneDeep = new int[Piece.NUM_PIECES];
+		for (int i1 = 0; i1 < Piece.NUM_PIECES; i1++) {
+			int[][] layout = Piece.ALL_PIECES[i1].getLayout();
+			for (int y = 0; y < layout.length; y++) {
+				for (int x = 0; x < layout[0].length; x++) {
+					if (layout[y][x] == 2) {
+						twoDeep[i1]++;
+					} else if (layout[y][x] == 1) {
+						oneDeep[i1]++;
+					}
+				}
+			}
+		}
+		
+		//First the counts that use every piece of each set. Each set is the set without its
+		//highest piece, plus that piece. Bit n of oneDeepSums is set if some of the pieces
+		//have n pegs 1 deep in total, which is what the front can get from them.
+		int[] twoDeepPegs = new int[NUM_SETS];
+		int[] oneDeepPegs = new int[NUM_SETS];
+		long[] oneDeepSums = new long[NUM_SETS];
+		oneDeepSums[0] = 1;
+		for (int set = 0; set < NUM_SETS; set++) {
+			if (set > 0) {
+				int highest = 31 - Integer.numberOfLeadingZeros(set);
+				int rest = set & ~(1 << highest);
+				twoDeepPegs[set] = twoDeepPegs[rest] + twoDeep[highest];
+				oneDeepPegs[set] = oneDeepPegs[rest] + oneDeep[highest];
+				oneDeepSums[set] = oneDeepSums[rest] | (oneDeepSums[rest] << oneDeep[highest]);
+			}
+			
+			byte[] minBoth = MIN_BOTH_EMPTY[set];
+			Arrays.fill(minBoth, IMPOSSIBLE);
+			for (int front = 0; front <= oneDeepPegs[set]; front++) {
+				int back = oneDeepPegs[set] - front;
+				if ((oneDeepSums[set] & (1L << front)) != 0 && twoDeepPegs[set] + Math.max(front, back) < COUNTS) {
+					minBoth[(twoDeepPegs[set] + front) * COUNTS + twoDeepPegs[set] + back] = (byte) twoDeepPegs[set];
+				}
+			}
+		}
+		
+		//Then let each set use only some of its pieces, by taking the lowest count of every subset
+		for (int i1 = 0; i1 < Piece.NUM_PIECES; i1++) {
+			for (int set = 0; set < NUM_SETS; set++) {
+				if ((set & (1 << i1)) != 0) {
+					byte[] minBoth = MIN_BOTH_EMPTY[set];
+					byte[] without = MIN_BOTH_EMPTY[set & ~(1 << i1)];
+					for (int i2 = 0; i2 < minBoth.length; i2++) {
+						if (without[i2] < minBoth[i2]) {
+							minBoth[i2] = without[i2];
+						}
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Checks if some of a set of pieces have exactly the pegs to fill some empty cells.
+	 * Since every piece has pegs, only the whole set can fill all of the empty cells of a board
+	 * when they are given as the counts.
+	 * @param pieces One bit for each piece that can be used
+	 * @param emptyFront The number of cells to fill on the front
+	 * @param emptyBack The number of cells to fill on the back
+	 * @param emptyBoth The number of those cells that are empty on both sides
+	 * @return True if the pegs fit, false if no set of the pieces can fill the cells
+	 */
+	public static boolean canFill(int pieces, int emptyFront, int emptyBack, int emptyBoth) {
+		if (emptyFront >= COUNTS || emptyBack >= COUNTS) {
+			return false;
+		}
+		return MIN_BOTH_EMPTY[pieces & (NUM_SETS - 1)][emptyFront * COUNTS + emptyBack] <= emptyBoth;
+	}
+	
+	/**
+	 * Gets the cost left to solve a board, or infinity if the remaining pieces have the wrong
+	 * pegs to fill it. It is never more than the real cost, and is the real cost whenever the
+	 * board can be solved.
+	 * @param frontMask The cells covered on the front
+	 * @param backMask The cells covered on the back
+	 * @param placedPieces One bit for each piece that has been placed
+	 * @return The number of empty cells on both sides, or Double.POSITIVE_INFINITY
+	 */
+	public static double heuristic(long frontMask, long backMask, int placedPieces) {
+		int emptyFront = Board.NUM_CELLS - Long.bitCount(frontMask);
+		int emptyBack = Board.NUM_CELLS - Long.bitCount(backMask);
+		int emptyBoth = Board.NUM_CELLS - Long.bitCount(frontMask | backMask);
+		if (!canFill(~placedPieces, emptyFront, emptyBack, emptyBoth)) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return emptyFront + emptyBack;
+	}
+}
@@ -1,31 +1,60 @@
+import java.util.Arrays;
 import java.util.HashMap;
 
 /**
  * The <code>Piece</code> class represents a game piece with some pegs 1 deep (only on one side)
  * and some pegs 2 deep (goes through to the other side).
+ * <br>
+ * A Piece is one orientation of a game piece and never changes. Rotating gives the Piece for
+ * the next orientation, and whether a piece is placed is kept by each Board, so the same
+ * Piece objects can be used by any number of boards and threads at once.
  * 
  * @author Jordan Turley
  * @author Will Edwards
  */
-public class Piece implements Cloneable {
+public class Piece {
 	public static final int NUM_PIECES = 11;
+	//Each piece in the orientation it was created with
 	public static final Piece[] ALL_PIECES = new Piece[NUM_PIECES];
 	public static final HashMap<Character, String> COLOR_DICTIONARY = new HashMap<Character, String>();
+	
+	//For each piece, the rotations that give a different layout, worked out once in initPieces
+	private static final int[][] DISTINCT_ROTATIONS = new int[NUM_PIECES][];
+	//For each piece, the lowest index of a piece with the same shape and color
+	private static final int[] FIRST_OF_SHAPE = new int[NUM_PIECES];
+	//For each piece, its four orientations, made once so rotating never makes a new Piece
+	private static final Piece[][] ORIENTATIONS = new Piece[NUM_PIECES][4];
 	static {
 		initPieces();
+		initOrientations();
+		initSymmetries();
 	}
 	
-	private int[][] layout;
-	private char color;
-	private boolean placed;
+	private final int[][] layout;
+	private final char color;
+	private final int index;
+	private final int rotation;
 	
 	/**
 	 * Creates a new Piece object with a layout.
 	 * @param layout A 2D array of integers representing the layout of the pegs of this piece
 	 * @param color A character to represent the color of this piece, to tell it from other pieces
+	 * @param index The index of this piece in ALL_PIECES
 	 * @throws IllegalArgumentException If there is no peg 2 deep
 	 */
-	private Piece(int[][] layout, char color) throws IllegalArgumentException {
+	private Piece(int[][] layout, char color, int index) throws IllegalArgumentException {
+		this(layout, color, index, 0);
+	}
+	
+	/**
+	 * Creates a new Piece object for one orientation of a piece.
+	 * @param layout A 2D array of integers representing the layout of the pegs of this piece
+	 * @param color A character to represent the color of this piece, to tell it from other pieces
+	 * @param index The index of this piece in ALL_PIECES
+	 * @param rotation The number of times the layout was rotated to the right from the first orientation
+	 * @throws IllegalArgumentException If there is no peg 2 deep
+	 */
+	private Piece(int[][] layout, char color, int index, int rotation) throws IllegalArgumentException {
 		boolean hasPeg2Deep = false;
 		for (int y = 0; y < layout.length; y++) {
 			for (int x = 0; x < layout[0].length; x++) {
@@ -40,18 +69,24 @@ public class Piece implements Cloneable {
 		
 		this.layout = layout;
 		this.color = color;
-		placed = false;
+		this.index = index;
+		this.rotation = rotation;
 	}
 	
 	/**
-	 * Rotates the game piece 90 degrees to the right
-	 * @throws IllegalStateException If the piece has already been placed on the board
+	 * Gets this piece rotated 90 degrees to the right. The piece itself does not change.
+	 * @return The Piece for the next orientation
 	 */
-	public void rotate() throws IllegalStateException {
-		if (placed) {
-			throw new IllegalStateException("This piece cannot be rotated, it is already placed on the board.");
-		}
-		
+	public Piece rotated() {
+		return ORIENTATIONS[index][(rotation + 1) % 4];
+	}
+	
+	/**
+	 * Rotates a piece layout 90 degrees to the right
+	 * @param layout The layout to rotate
+	 * @return A new array with the rotated layout
+	 */
+	private static int[][] rotateLayout(int[][] layout) {
 		int origHeight = layout.length;
 		int origWidth = layout[0].length;
 		
@@ -73,38 +108,77 @@ public class Piece implements Cloneable {
 				rotatedArr[y][x] = layout[origHeight - 1 - x][y];
 			}
 		}
-		layout = rotatedArr;
+		return rotatedArr;
+	}
+	
+	/**
+	 * Gets this piece in one of its orientations. Rotations are counted from the layout
+	 * the piece was created with, no matter which orientation this one is.
+	 * @param rotations The number of times to rotate the piece 90 degrees to the right
+	 * @return The Piece with the rotated layout
+	 */
+	public Piece getOrientation(int rotations) {
+		return ORIENTATIONS[index][rotations & 3];
 	}
 	
-	public boolean isPlaced() {
-		return placed;
+	/**
+	 * @return The number of times this orientation is rotated to the right from the layout
+	 * the piece was created with, from 0 to 3
+	 */
+	public int getRotation() {
+		return rotation;
 	}
 	
 	/**
-	 * Sets the piece as placed on the board
+	 * Gets the rotations of this piece that give different layouts. A piece that looks the
+	 * same turned 180 degrees only has 2, so placing it in the other 2 would repeat them.
+	 * @return The numbers of times to rotate the piece to the right, starting with 0
 	 */
-	public void place() {
-		placed = true;
+	public int[] getDistinctRotations() {
+		return DISTINCT_ROTATIONS[index];
 	}
 	
 	/**
-	 * Sets this piece as not placed on the board. Used when clearing the board
+	 * Gets the first piece in ALL_PIECES that is the same as this one. Pieces that are the same
+	 * can be swapped in any solution, so a search only needs to place them in order of index.
+	 * @return The index of the first piece with the same shape and color, which is this
+	 * piece's own index if no piece before it is the same
 	 */
-	public void unplace() {
-		placed = false;
+	public int getFirstOfShape() {
+		return FIRST_OF_SHAPE[index];
 	}
 	
 	/**
-	 * @return The 2D array of ints representing the layout of the piece
+	 * @return A copy of the 2D array of ints representing the layout of the piece,
+	 * so the piece cannot be changed through it
 	 */
 	public int[][] getLayout() {
-		return layout;
+		int[][] copy = new int[layout.length][];
+		for (int y = 0; y < layout.length; y++) {
+			copy[y] = layout[y].clone();
+		}
+		return copy;
+	}
+	
+	/**
+	 * @param layout A layout of pegs
+	 * @return True if this piece has the same layout, without copying it
+	 */
+	public boolean hasLayout(int[][] layout) {
+		return Arrays.deepEquals(this.layout, layout);
 	}
 	
 	public char getColor() {
 		return color;
 	}
 	
+	/**
+	 * @return The index of this piece in ALL_PIECES
+	 */
+	public int getIndex() {
+		return index;
+	}
+	
 	/**
 	 * Calculates the cost of placing this piece, by the number of positions filled on the board
 	 * @return The cost of placing this piece
@@ -119,23 +193,11 @@ public class Piece implements Cloneable {
 		return count;
 	}
 	
-	@Override
-	public Object clone() {
-		Object o = null;
-		try {
-			o = super.clone();
-		} catch (CloneNotSupportedException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
-		return o;
-	}
-	
 	/* @Override
 	public boolean equals(Object o) {
 		if (o instanceof Piece) {
 			Piece p = (Piece) o;
-			
+		
 		} else {
 			return false;
 		}
@@ -177,7 +239,7 @@ public class Piece implements Cloneable {
 				{0, 1},
 				{2, 2}
 			};
-		Piece piece1 = new Piece(layout1, 'P');
+		Piece piece1 = new Piece(layout1, 'P', 0);
 		ALL_PIECES[0] = piece1;
 		COLOR_DICTIONARY.put('P', "Pink");
 		
@@ -186,7 +248,7 @@ public class Piece implements Cloneable {
 				{0, 1},
 				{2, 2}
 			};
-		Piece piece2 = new Piece(layout2, 'P');
+		Piece piece2 = new Piece(layout2, 'P', 1);
 		ALL_PIECES[1] = piece2;
 		
 		int[][] layout3 = 
@@ -194,7 +256,7 @@ public class Piece implements Cloneable {
 				{1, 0},
 				{2, 2}
 			};
-		Piece piece3 = new Piece(layout3, 'B');
+		Piece piece3 = new Piece(layout3, 'B', 2);
 		ALL_PIECES[2] = piece3;
 		COLOR_DICTIONARY.put('B', "Dark Blue");
 		
@@ -203,7 +265,7 @@ public class Piece implements Cloneable {
 				{0, 0, 2},
 				{2, 1, 1}
 			};
-		Piece piece4 = new Piece(layout4, 'G');
+		Piece piece4 = new Piece(layout4, 'G', 3);
 		ALL_PIECES[3] = piece4;
 		COLOR_DICTIONARY.put('G', "Light Green");
 		
@@ -211,7 +273,7 @@ public class Piece implements Cloneable {
 			{
 				{1, 2, 2}
 			};
-		Piece piece5 = new Piece(layout5, 'R');
+		Piece piece5 = new Piece(layout5, 'R', 4);
 		ALL_PIECES[4] = piece5;
 		COLOR_DICTIONARY.put('R', "Red");
 		
@@ -220,7 +282,7 @@ public class Piece implements Cloneable {
 				{0, 1, 0},
 				{1, 2, 2}
 			};
-		Piece piece6 = new Piece(layout6, 'Y');
+		Piece piece6 = new Piece(layout6, 'Y', 5);
 		ALL_PIECES[5] = piece6;
 		COLOR_DICTIONARY.put('Y', "Yellow");
 		
@@ -229,7 +291,7 @@ public class Piece implements Cloneable {
 				{0, 0, 1},
 				{2, 1, 2}
 			};
-		Piece piece7 = new Piece(layout7, 'O');
+		Piece piece7 = new Piece(layout7, 'O', 6);
 		ALL_PIECES[6] = piece7;
 		COLOR_DICTIONARY.put('O', "Orange");
 		
@@ -238,7 +300,7 @@ public class Piece implements Cloneable {
 				{0, 1, 1},
 				{2, 2, 0}
 			};
-		Piece piece8 = new Piece(layout8, 'U');
+		Piece piece8 = new Piece(layout8, 'U', 7);
 		ALL_PIECES[7] = piece8;
 		COLOR_DICTIONARY.put('U', "Purple");
 		
@@ -247,7 +309,7 @@ public class Piece implements Cloneable {
 				{0, 2},
 				{2, 1}
 			};
-		Piece piece9 = new Piece(layout9, 'E');
+		Piece piece9 = new Piece(layout9, 'E', 8);
 		ALL_PIECES[8] = piece9;
 		COLOR_DICTIONARY.put('E', "Dark Green");
 		
@@ -255,7 +317,7 @@ public class Piece implements Cloneable {
 			{
 				{2, 1, 2}
 			};
-		Piece piece10 = new Piece(layout10, 'T');
+		Piece piece10 = new Piece(layout10, 'T', 9);
 		ALL_PIECES[9] = piece10;
 		COLOR_DICTIONARY.put('T', "Teal");
 		
@@ -264,18 +326,63 @@ public class Piece implements Cloneable {
 				{1, 0, 0},
 				{2, 1, 2}
 			};
-		Piece piece11 = new Piece(layout11, 'L');
+		Piece piece11 = new Piece(layout11, 'L', 10);
 		ALL_PIECES[10] = piece11;
 		COLOR_DICTIONARY.put('L', "Light Blue");
 	}
 	
 	/**
-	 * Prints out all of the color char codes and the actual String for that color
+	 * Makes the four orientations of each piece, once the pieces are set up
+	 */
+	private static void initOrientations() {
+		for (int i1 = 0; i1 < NUM_PIECES; i1++) {
+			Piece piece = ALL_PIECES[i1];
+			ORIENTATIONS[i1][0] = piece;
+			int[][] layout = piece.layout;
+			for (int rotation = 1; rotation < 4; rotation++) {
+				layout = rotateLayout(layout);
+				ORIENTATIONS[i1][rotation] = new Piece(layout, piece.color, i1, rotation);
+			}
+		}
+	}
+	
+	/**
+	 * Works out which rotations of each piece are different, and which pieces are the same
+	 * as an earlier piece, once the pieces are set up
 	 */
-	public static void printColorKeys() {
-		for (Character key : COLOR_DICTIONARY.keySet()) {
-			String color = COLOR_DICTIONARY.get(key);
-			System.out.println(key + ": " + color);
+	private static void initSymmetries() {
+		for (int i1 = 0; i1 < NUM_PIECES; i1++) {
+			int[][][] layouts = new int[4][][];
+			int[] rotations = new int[4];
+			int count = 0;
+			int[][] layout = ALL_PIECES[i1].layout;
+			for (int rotation = 0; rotation < 4; rotation++) {
+				boolean repeat = false;
+				for (int i2 = 0; i2 < count; i2++) {
+					if (Arrays.deepEquals(layouts[i2], layout)) {
+						repeat = true;
+					}
+				}
+				if (!repeat) {
+					layouts[count] = layout;
+					rotations[count] = rotation;
+					count++;
+				}
+				layout = rotateLayout(layout);
+			}
+			DISTINCT_ROTATIONS[i1] = Arrays.copyOf(rotations, count);
+			
+			FIRST_OF_SHAPE[i1] = i1;
+			for (int i2 = 0; i2 < i1 && FIRST_OF_SHAPE[i1] == i1; i2++) {
+				if (ALL_PIECES[i2].color != ALL_PIECES[i1].color) {
+					continue;
+				}
+				for (int i3 = 0; i3 < count; i3++) {
+					if (ALL_PIECES[i2].hasLayout(layouts[i3])) {
+						FIRST_OF_SHAPE[i1] = i2;
+					}
+				}
+			}
 		}
 	}
 }
@@ -0,0 +1,288 @@
+import java.util.ArrayList;
+
+/**
+ * The <code>Placement</code> class stores one legal way to put a piece on the board:
+ * the piece, its rotation, the x-y location and the side, along with masks of the
+ * cells it covers on the front and the back. Every placement is built once when the
+ * class is loaded, so the search never has to rotate pieces or rebuild their layouts.
+ *
+ * @author Jordan Turley
+ * @author Will Edwards
+ */
+public class Placement {
+	private static final Placement[][] PLACEMENTS_BY_PIECE = new Placement[Piece.NUM_PIECES][];
+	private static final Placement[][] PLACEMENTS_BY_FRONT_CELL = new Placement[Board.NUM_CELLS][];
+	private static final Placement[][] PLACEMENTS_BY_BACK_CELL = new Placement[Board.NUM_CELLS][];
+	
+	//Move codes pack a placement into 13 bits: the piece, rotation, side, x and y
+	private static final int Y_BITS = 3;
+	private static final int X_BITS = 3;
+	private static final int SIDE_SHIFT = X_BITS + Y_BITS;
+	private static final int ROTATION_SHIFT = SIDE_SHIFT + 1;
+	private static final int PIECE_SHIFT = ROTATION_SHIFT + 2;
+	public static final int NUM_MOVE_CODES = Piece.NUM_PIECES << PIECE_SHIFT;
+	private static final Placement[] PLACEMENTS_BY_CODE = new Placement[NUM_MOVE_CODES];
+	static {
+		initPlacements();
+	}
+	
+	private Piece piece;
+	private int rotation;
+	private int x;
+	private int y;
+	private boolean sideFront;
+	
+	private long frontMask;
+	private long backMask;
+	private double cost;
+	private long zobristKey;
+	private long mirrorKey;
+	private int moveCode;
+	
+	/**
+	 * Creates a new Placement, working out the cells the piece covers.
+	 * @param piece The piece, already rotated into the orientation being placed
+	 * @param rotation The number of times the piece was rotated to the right
+	 * @param x The x location of the top-left of the piece, on the side it is placed from
+	 * @param y The y location of the top-left of the piece
+	 * @param sideFront True if the piece is placed from the front, false if from the back
+	 */
+	private Placement(Piece piece, int rotation, int x, int y, boolean sideFront) {
+		this.piece = piece;
+		this.rotation = rotation;
+		this.x = x;
+		this.y = y;
+		this.sideFront = sideFront;
+		
+		int[][] layout = piece.getLayout();
+		for (int y1 = 0; y1 < layout.length; y1++) {
+			for (int x1 = 0; x1 < layout[0].length; x1++) {
+				int viewX = x + x1;
+				int frontX = sideFront ? viewX : Board.WIDTH - 1 - viewX;
+				long bit = 1L << Board.cellIndex(frontX, y + y1);
+				if (layout[y1][x1] == 2) {
+					frontMask |= bit;
+					backMask |= bit;
+				} else if (layout[y1][x1] == 1) {
+					if (sideFront) {
+						frontMask |= bit;
+					} else {
+						backMask |= bit;
+					}
+				}
+			}
+		}
+		cost = piece.getCost();
+		zobristKey = Zobrist.hash(frontMask, backMask, 1 << piece.getIndex());
+		mirrorKey = Zobrist.hash(Board.mirrorMask(backMask), Board.mirrorMask(frontMask), 1 << piece.getIndex());
+		moveCode = piece.getIndex() << PIECE_SHIFT | rotation << ROTATION_SHIFT | (sideFront ? 0 : 1) << SIDE_SHIFT
+				| x << Y_BITS | y;
+	}
+	
+	/**
+	 * Checks if this placement can be put on a board
+	 * @param front The mask of the cells covered on the front of the board
+	 * @param back The mask of the cells covered on the back of the board
+	 * @return True if none of the cells this placement covers are already covered
+	 */
+	public boolean fits(long front, long back) {
+		return (frontMask & front) == 0 && (backMask & back) == 0;
+	}
+	
+	/**
+	 * @return The piece, rotated into the orientation of this placement
+	 */
+	public Piece getPiece() {
+		return piece;
+	}
+	
+	public int getPieceIndex() {
+		return piece.getIndex();
+	}
+	
+	public int getRotation() {
+		return rotation;
+	}
+	
+	public int getX() {
+		return x;
+	}
+	
+	public int getY() {
+		return y;
+	}
+	
+	public boolean isSideFront() {
+		return sideFront;
+	}
+	
+	public long getFrontMask() {
+		return frontMask;
+	}
+	
+	public long getBackMask() {
+		return backMask;
+	}
+	
+	/**
+	 * @return The cost of placing the piece, the same as Piece.getCost
+	 */
+	public double getCost() {
+		return cost;
+	}
+	
+	/**
+	 * @return The keys this placement XORs into the Zobrist hash of a board
+	 */
+	public long getZobristKey() {
+		return zobristKey;
+	}
+	
+	/**
+	 * Gets the keys the mirror of this placement XORs into the Zobrist hash of a board.
+	 * The mirror is the same piece, rotation and x-y location placed from the other side,
+	 * which covers this placement's cells flipped horizontally and with front and back swapped.
+	 * @return The Zobrist keys of the mirrored placement
+	 */
+	public long getMirrorKey() {
+		return mirrorKey;
+	}
+	
+	/**
+	 * @return A number from 0 to NUM_MOVE_CODES - 1 that stands for this placement,
+	 * for storing placements in files. See fromMoveCode.
+	 */
+	public int getMoveCode() {
+		return moveCode;
+	}
+	
+	/**
+	 * @return An Action to describe this placement to the user
+	 */
+	public Action toAction() {
+		return new Action(piece, x, y, sideFront);
+	}
+	
+	/**
+	 * Gets all of the placements of one piece
+	 * @param pieceIndex The index of the piece in Piece.ALL_PIECES
+	 * @return Every rotation, side and x-y location the piece fits on an empty board
+	 */
+	public static Placement[] forPiece(int pieceIndex) {
+		return PLACEMENTS_BY_PIECE[pieceIndex];
+	}
+	
+	/**
+	 * Finds the placement of a piece in one rotation, side and x-y location
+	 * @param pieceIndex The index of the piece in Piece.ALL_PIECES
+	 * @param rotation The number of times the piece is rotated to the right
+	 * @param sideFront True if the piece is placed from the front, false if from the back
+	 * @param x The x location of the top-left of the piece, on the side it is placed from
+	 * @param y The y location of the top-left of the piece
+	 * @return The placement, or null if the piece would hang off the side of the board there
+	 */
+	public static Placement find(int pieceIndex, int rotation, boolean sideFront, int x, int y) {
+		//Rotations that repeat an earlier layout are not in the catalog, so match on the layout
+		return find(pieceIndex, Piece.ALL_PIECES[pieceIndex].getOrientation(rotation).getLayout(), sideFront, x, y);
+	}
+	
+	/**
+	 * Finds the placement of a piece with a layout, side and x-y location
+	 * @param pieceIndex The index of the piece in Piece.ALL_PIECES
+	 * @param layout The layout of the piece, in one of its rotations
+	 * @param sideFront True if the piece is placed from the front, false if from the back
+	 * @param x The x location of the top-left of the piece, on the side it is placed from
+	 * @param y The y location of the top-left of the piece
+	 * @return The placement, or null if the piece would hang off the side of the board there
+	 */
+	public static Placement find(int pieceIndex, int[][] layout, boolean sideFront, int x, int y) {
+		for (Placement placement : PLACEMENTS_BY_PIECE[pieceIndex]) {
+			if (placement.sideFront == sideFront && placement.x == x && placement.y == y
+					&& placement.piece.hasLayout(layout)) {
+				return placement;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Gets the placement a move code stands for
+	 * @param moveCode A move code from getMoveCode
+	 * @return The placement, or null if no placement has that code
+	 */
+	public static Placement fromMoveCode(int moveCode) {
+		if (moveCode < 0 || moveCode >= NUM_MOVE_CODES) {
+			return null;
+		}
+		return PLACEMENTS_BY_CODE[moveCode];
+	}
+	
+	/**
+	 * Gets all of the placements that cover a cell on the front
+	 * @param cell The index of the cell, from Board.cellIndex
+	 * @return Every placement of every piece with a peg in that cell on the front
+	 */
+	public static Placement[] coveringFront(int cell) {
+		return PLACEMENTS_BY_FRONT_CELL[cell];
+	}
+	
+	/**
+	 * Gets all of the placements that cover a cell on the back
+	 * @param cell The index of the cell, from Board.cellIndex
+	 * @return Every placement of every piece with a peg in that cell on the back
+	 */
+	public static Placement[] coveringBack(int cell) {
+		return PLACEMENTS_BY_BACK_CELL[cell];
+	}
+	
+	/**
+	 * Builds the placements for every piece, side, y, x and rotation
+	 * that does not hang off the side of the board. Rotations that give the
+	 * same layout as an earlier rotation are left out.
+	 */
+	private static void initPlacements() {
+		for (int pieceIndex = 0; pieceIndex < Piece.NUM_PIECES; pieceIndex++) {
+			Piece[] orientations = new Piece[4];
+			for (int rotation = 0; rotation < 4; rotation++) {
+				orientations[rotation] = Piece.ALL_PIECES[pieceIndex].getOrientation(rotation);
+			}
+			
+			ArrayList<Placement> placements = new ArrayList<Placement>();
+			for (int boardSide = 0; boardSide < 2; boardSide++) {
+				for (int y = 0; y < Board.HEIGHT; y++) {
+					for (int x = 0; x < Board.WIDTH; x++) {
+						for (int rotation : Piece.ALL_PIECES[pieceIndex].getDistinctRotations()) {
+							Piece piece = orientations[rotation];
+							int[][] layout = piece.getLayout();
+							if (x + layout[0].length > Board.WIDTH || y + layout.length > Board.HEIGHT) {
+								continue;
+							}
+							placements.add(new Placement(piece, rotation, x, y, boardSide == 0));
+						}
+					}
+				}
+			}
+			PLACEMENTS_BY_PIECE[pieceIndex] = placements.toArray(new Placement[placements.size()]);
+			for (Placement placement : placements) {
+				PLACEMENTS_BY_CODE[placement.moveCode] = placement;
+			}
+		}
+		
+		for (int cell = 0; cell < Board.NUM_CELLS; cell++) {
+			ArrayList<Placement> front = new ArrayList<Placement>();
+			ArrayList<Placement> back = new ArrayList<Placement>();
+			for (Placement[] placements : PLACEMENTS_BY_PIECE) {
+				for (Placement placement : placements) {
+					if ((placement.frontMask & (1L << cell)) != 0) {
+						front.add(placement);
+					}
+					if ((placement.backMask & (1L << cell)) != 0) {
+						back.add(placement);
+					}
+				}
+			}
+			PLACEMENTS_BY_FRONT_CELL[cell] = front.toArray(new Placement[front.size()]);
+			PLACEMENTS_BY_BACK_CELL[cell] = back.toArray(new Placement[back.size()]);
+		}
+	}
+}
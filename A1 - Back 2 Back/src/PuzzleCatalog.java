@@ -0,0 +1,225 @@
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The <code>PuzzleCatalog</code> class reads puzzles from a catalog file, so new puzzles do not
+ * need a code change. The file is memory mapped, and a puzzle is only decoded when it is set up
+ * on a board, so a catalog of tens of thousands of puzzles opens right away.
+ * <br>
+ * The file is big-endian. It starts with the int MAGIC, the int VERSION and the int number of
+ * puzzles. Then comes an index with an int puzzle number and an int offset from the start of the
+ * file for each puzzle, sorted by puzzle number. At each offset there is a byte with the number
+ * of starting pieces, then a short move code for each one, see Placement.getMoveCode.
+ * <br>
+ * The default catalog is the resource DEFAULT_RESOURCE next to this class, which has the
+ * puzzles from the game booklet. PuzzleCatalogWriter writes catalog files.
+ *
+ * @author Jordan Turley
+ * @author Will Edwards
+ */
+public class PuzzleCatalog {
+	public static final int MAGIC = 0x42324250; //"B2BP"
+	public static final int VERSION = 1;
+	public static final String DEFAULT_RESOURCE = "puzzles.b2b";
+	
+	//Bytes before the index, and bytes for each puzzle in the index
+	public static final int HEADER_BYTES = 12;
+	public static final int INDEX_ENTRY_BYTES = 8;
+	
+	private static PuzzleCatalog defaultCatalog;
+	
+	private ByteBuffer buffer;
+	private int size;
+	
+	/**
+	 * Creates a catalog that reads from a buffer, checking the header
+	 * @param buffer The contents of a catalog file
+	 * @throws IOException If the buffer is not a catalog file
+	 */
+	private PuzzleCatalog(ByteBuffer buffer) throws IOException {
+		this.buffer = buffer;
+		if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+			throw new IOException("The file is not a puzzle catalog.");
+		}
+		if (buffer.getInt(4) != VERSION) {
+			throw new IOException("The puzzle catalog version " + buffer.getInt(4) + " is not supported.");
+		}
+		size = buffer.getInt(8);
+		if (size < 0 || HEADER_BYTES + (long) size * INDEX_ENTRY_BYTES > buffer.limit()) {
+			throw new IOException("The puzzle catalog index is cut off.");
+		}
+	}
+	
+	/**
+	 * Opens a catalog file, memory mapping it
+	 * @param file The catalog file
+	 * @return The catalog
+	 * @throws IOException If the file cannot be read or is not a catalog file
+	 */
+	public static PuzzleCatalog open(File file) throws IOException {
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = in.getChannel();
+			//The mapping stays valid after the file is closed
+			return new PuzzleCatalog(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		} finally {
+			in.close();
+		}
+	}
+	
+	/**
+	 * Gets the catalog of the puzzles from the game booklet, opening it the first time
+	 * @return The default catalog
+	 * @throws IllegalStateException If the catalog resource is missing or cannot be read
+	 */
+	public static synchronized PuzzleCatalog getDefault() throws IllegalStateException {
+		if (defaultCatalog == null) {
+			URL url = PuzzleCatalog.class.getResource(DEFAULT_RESOURCE);
+			if (url == null) {
+				throw new IllegalStateException("The puzzle catalog " + DEFAULT_RESOURCE + " was not found.");
+			}
+			try {
+				if (url.getProtocol().equals("file")) {
+					defaultCatalog = open(new File(url.toURI()));
+				} else {
+					//Inside a jar the resource cannot be mapped, so it is read into memory
+					defaultCatalog = new PuzzleCatalog(ByteBuffer.wrap(readAll(url)));
+				}
+			} catch (IOException e) {
+				throw new IllegalStateException("The puzzle catalog could not be read.", e);
+			} catch (URISyntaxException e) {
+				throw new IllegalStateException("The puzzle catalog could not be read.", e);
+			}
+		}
+		return defaultCatalog;
+	}
+	
+	/**
+	 * Reads every byte of a resource
+	 */
+	private static byte[] readAll(URL url) throws IOException {
+		InputStream in = url.openStream();
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] chunk = new byte[8192];
+			int read;
+			while ((read = in.read(chunk)) != -1) {
+				out.write(chunk, 0, read);
+			}
+			return out.toByteArray();
+		} finally {
+			in.close();
+		}
+	}
+	
+	/**
+	 * @return The number of puzzles in the catalog
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * @return The number of every puzzle in the catalog, in order
+	 */
+	public int[] getPuzzleNumbers() {
+		int[] numbers = new int[size];
+		for (int i1 = 0; i1 < size; i1++) {
+			numbers[i1] = buffer.getInt(HEADER_BYTES + i1 * INDEX_ENTRY_BYTES);
+		}
+		return numbers;
+	}
+	
+	/**
+	 * @param number A puzzle number
+	 * @return True if the catalog has a puzzle with that number
+	 */
+	public boolean contains(int number) {
+		return findEntry(number) >= 0;
+	}
+	
+	/**
+	 * Decodes the starting pieces of one puzzle
+	 * @param number The puzzle number
+	 * @return The placements of the starting pieces, in the order they are put on the board
+	 * @throws IllegalArgumentException If the catalog has no puzzle with that number
+	 * @throws IllegalStateException If the puzzle's entry in the file is damaged
+	 */
+	public List<Placement> getPlacements(int number) throws IllegalArgumentException, IllegalStateException {
+		int entry = findEntry(number);
+		if (entry < 0) {
+			throw new IllegalArgumentException("The initial state number " + number + " was not recognized.");
+		}
+		int offset = buffer.getInt(HEADER_BYTES + entry * INDEX_ENTRY_BYTES + 4);
+		if (offset < 0 || offset >= buffer.limit()) {
+			throw new IllegalStateException("The puzzle catalog entry for " + number + " is damaged.");
+		}
+		int count = buffer.get(offset);
+		if (count < 0 || count > Piece.NUM_PIECES || offset + 1 + 2 * count > buffer.limit()) {
+			throw new IllegalStateException("The puzzle catalog entry for " + number + " is damaged.");
+		}
+		
+		ArrayList<Placement> placements = new ArrayList<Placement>();
+		for (int i1 = 0; i1 < count; i1++) {
+			Placement placement = Placement.fromMoveCode(buffer.getShort(offset + 1 + 2 * i1));
+			if (placement == null) {
+				throw new IllegalStateException("The puzzle catalog entry for " + number + " is damaged.");
+			}
+			placements.add(placement);
+		}
+		return placements;
+	}
+	
+	/**
+	 * Clears a board and puts the starting pieces of one puzzle on it, viewed from the front
+	 * @param board The board to set up
+	 * @param number The puzzle number
+	 * @throws IllegalArgumentException If the catalog has no puzzle with that number
+	 * @throws IllegalStateException If the puzzle's entry in the file is damaged
+	 */
+	public void setUp(Board board, int number) throws IllegalArgumentException, IllegalStateException {
+		List<Placement> placements = getPlacements(number);
+		board.clearBoard();
+		for (Placement placement : placements) {
+			int status = board.tryPlace(placement);
+			if (status != Board.PLACE_OK) {
+				throw new IllegalStateException("The puzzle catalog entry for " + number + " is damaged: "
+						+ Board.getPlaceMessage(status));
+			}
+		}
+		if (!board.getSide()) {
+			board.switchSide();
+		}
+	}
+	
+	/**
+	 * Finds a puzzle in the index with a binary search
+	 * @param number The puzzle number
+	 * @return The position of the puzzle in the index, or -1 if it is not there
+	 */
+	private int findEntry(int number) {
+		int low = 0;
+		int high = size - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int midNumber = buffer.getInt(HEADER_BYTES + mid * INDEX_ENTRY_BYTES);
+			if (midNumber < number) {
+				low = mid + 1;
+			} else if (midNumber > number) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,155 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The <code>PuzzleCatalogWriter</code> class writes puzzle catalog files for PuzzleCatalog.
+ * The puzzles from the game booklet are taken from BookletPuzzles, by recording the pieces
+ * it adds to a board. Puzzles from PuzzleGenerator output files can be added after them,
+ * numbered from GENERATED_START.
+ * <br>
+ * Arguments: the catalog file to write (default: the default catalog in src), then any number
+ * of PuzzleGenerator output files to add.
+ *
+ * @author Jordan Turley
+ * @author Will Edwards
+ */
+public class PuzzleCatalogWriter {
+	public static final String DEFAULT_FILE = "src/" + PuzzleCatalog.DEFAULT_RESOURCE;
+	
+	//The number of the first puzzle added from a generator file
+	public static final int GENERATED_START = 1000;
+	
+	//The initial state numbers from the game booklet, which BookletPuzzles can set up
+	public static final int[] INITIAL_STATES = {
+		1, 2, 3, 4, 5, 6, 7, 8, 11, 25, 26, 35,
+		44, 45, 46, 47, 48, 49, 50, 51, 52, 53, 54, 55, 56, 57, 58, 59, 60
+	};
+	
+	public static void main(String[] args) throws IOException {
+		File file = new File(DEFAULT_FILE);
+		if (args.length > 0) {
+			file = new File(args[0]);
+		}
+		
+		TreeMap<Integer, List<Placement>> puzzles = new TreeMap<Integer, List<Placement>>();
+		for (int state : INITIAL_STATES) {
+			puzzles.put(state, recordBooklet(state));
+		}
+		int number = GENERATED_START;
+		for (int i1 = 1; i1 < args.length; i1++) {
+			for (List<Placement> placements : readGenerated(new File(args[i1]))) {
+				puzzles.put(number++, placements);
+			}
+		}
+		
+		write(file, puzzles);
+		checkBooklet(PuzzleCatalog.open(file));
+		System.out.println("Wrote " + puzzles.size() + " puzzles to " + file);
+	}
+	
+	/**
+	 * Writes a catalog file
+	 * @param file The file to write
+	 * @param puzzles The starting pieces of each puzzle, by puzzle number
+	 * @throws IOException If the file cannot be written
+	 */
+	public static void write(File file, Map<Integer, List<Placement>> puzzles) throws IOException {
+		//Sort the index by puzzle number, so the catalog can binary search it
+		TreeMap<Integer, List<Placement>> sorted = new TreeMap<Integer, List<Placement>>(puzzles);
+		
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			out.writeInt(PuzzleCatalog.MAGIC);
+			out.writeInt(PuzzleCatalog.VERSION);
+			out.writeInt(sorted.size());
+			
+			int offset = PuzzleCatalog.HEADER_BYTES + sorted.size() * PuzzleCatalog.INDEX_ENTRY_BYTES;
+			for (Map.Entry<Integer, List<Placement>> puzzle : sorted.entrySet()) {
+				out.writeInt(puzzle.getKey());
+				out.writeInt(offset);
+				offset += 1 + 2 * puzzle.getValue().size();
+			}
+			
+			for (List<Placement> placements : sorted.values()) {
+				out.writeByte(placements.size());
+				for (Placement placement : placements) {
+					out.writeShort(placement.getMoveCode());
+				}
+			}
+		} finally {
+			out.close();
+		}
+	}
+	
+	/**
+	 * Gets the starting pieces of a puzzle from the game booklet
+	 * @param state The initial state number
+	 * @return The placements BookletPuzzles makes for it, in order
+	 */
+	public static List<Placement> recordBooklet(int state) {
+		final ArrayList<Placement> placements = new ArrayList<Placement>();
+		Board recorder = new Board() {
+			@Override
+			public void addPiece(Piece piece, int xLoc, int yLoc) throws IllegalArgumentException {
+				super.addPiece(piece, xLoc, yLoc);
+				placements.add(Placement.find(piece.getIndex(), piece.getRotation(), getSide(), xLoc, yLoc));
+			}
+		};
+		BookletPuzzles.setUp(recorder, state);
+		return placements;
+	}
+	
+	/**
+	 * Reads the starting pieces of every puzzle in a PuzzleGenerator output file
+	 * @param file The output file
+	 * @return The placements of each puzzle, in the order of the file
+	 * @throws IOException If the file cannot be read
+	 */
+	public static List<List<Placement>> readGenerated(File file) throws IOException {
+		ArrayList<List<Placement>> puzzles = new ArrayList<List<Placement>>();
+		BufferedReader in = new BufferedReader(new FileReader(file));
+		try {
+			String line;
+			while ((line = in.readLine()) != null) {
+				if (line.isEmpty() || line.equals(PuzzleGenerator.OUTPUT_HEADER)) {
+					continue;
+				}
+				Board board = PuzzleGenerator.parse(line);
+				ArrayList<Placement> placements = new ArrayList<Placement>();
+				for (int i1 = 0; i1 < board.getMoveCount(); i1++) {
+					placements.add(board.getMove(i1));
+				}
+				puzzles.add(placements);
+			}
+		} finally {
+			in.close();
+		}
+		return puzzles;
+	}
+	
+	/**
+	 * Checks that every booklet puzzle in a catalog sets up the same board as BookletPuzzles
+	 * @param catalog The catalog to check
+	 * @throws IllegalStateException If a puzzle does not match
+	 */
+	private static void checkBooklet(PuzzleCatalog catalog) throws IllegalStateException {
+		for (int state : INITIAL_STATES) {
+			Board expected = new Board();
+			BookletPuzzles.setUp(expected, state);
+			Board actual = new Board();
+			catalog.setUp(actual, state);
+			if (!expected.toString().equals(actual.toString())) {
+				throw new IllegalStateException("Puzzle " + state + " does not match the booklet.");
+			}
+		}
+	}
+}
@@ -0,0 +1,309 @@
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The <code>PuzzleGenerator</code> class makes new puzzles like the ones in the game booklet:
+ * a board with some pieces already placed, that has exactly one solution.
+ * <br>
+ * Each puzzle starts from a random solved board, found by a depth-first search that tries the
+ * placements in a random order. A random few of its pieces are kept as the starting pieces, so
+ * the puzzle can always be solved. While the puzzle has more than one solution, another of the
+ * solved board's pieces is added, and then every starting piece the puzzle does not need to
+ * have only one solution is taken back out. Puzzles are graded by the number of nodes SolutionEnumerator
+ * expands to prove the solution is the only one.
+ * <br>
+ * Every thread makes puzzles on its own, and a puzzle that was already made (or the same
+ * board turned around) is not written again. Each line of the output has the grade, the
+ * number of nodes, the number of starting pieces and the starting pieces, each written as
+ * piece:rotation:side:x:y with the piece and x-y location starting from 1 like Game, and the
+ * side F or B.
+ * <br>
+ * Arguments, all optional: the number of puzzles (default 1000), the output file (default:
+ * print to the console), the number of threads (default: one per processor) and the random seed.
+ *
+ * @author Jordan Turley
+ * @author Will Edwards
+ */
+public class PuzzleGenerator {
+	public static final String OUTPUT_HEADER = "grade,nodes,starting_pieces,placements";
+	
+	//Grades, and the most nodes a puzzle of each grade can take to prove
+	public static final String[] GRADES = {"easy", "medium", "hard", "expert"};
+	private static final long[] GRADE_LIMITS = {100, 1000, 10000, Long.MAX_VALUE};
+	
+	//The fewest starting pieces a puzzle is made with, before adding more to make it unique
+	private static final int MIN_STARTING_PIECES = 1;
+	private static final int MAX_STARTING_PIECES = 4;
+	
+	private SearchOptions options;
+	private Set<Long> seen;
+	
+	/**
+	 * Creates a new generator
+	 */
+	public PuzzleGenerator() {
+		options = new SearchOptions();
+		options.setBranching(SearchOptions.Branching.CELL_ANCHORED);
+		seen = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+	}
+	
+	public static void main(String[] args) throws FileNotFoundException, InterruptedException {
+		int count = 1000;
+		if (args.length > 0) {
+			count = Integer.parseInt(args[0]);
+		}
+		PrintStream out = System.out;
+		if (args.length > 1) {
+			out = new PrintStream(args[1]);
+		}
+		int threads = Runtime.getRuntime().availableProcessors();
+		if (args.length > 2) {
+			threads = Integer.parseInt(args[2]);
+		}
+		long seed = System.nanoTime();
+		if (args.length > 3) {
+			seed = Long.parseLong(args[3]);
+		}
+		
+		long beforeTime = System.currentTimeMillis();
+		out.println(OUTPUT_HEADER);
+		new PuzzleGenerator().generate(count, threads, seed, out);
+		long afterTime = System.currentTimeMillis();
+		if (out != System.out) {
+			out.close();
+		}
+		System.err.println("Made " + count + " puzzles in " + (afterTime - beforeTime) / 1000.0 + " seconds");
+	}
+	
+	/**
+	 * Makes puzzles on a pool of threads, writing each one as soon as it is made
+	 * @param count The number of puzzles to make
+	 * @param threads The number of threads to make them on
+	 * @param seed The random seed. Each thread gets its own seed from it.
+	 * @param out Where to write the puzzles, one line each
+	 * @throws InterruptedException If this thread is interrupted while waiting for the puzzles
+	 * @throws IllegalStateException If a thread failed to make a puzzle. The other threads are stopped.
+	 */
+	public void generate(int count, int threads, long seed, final PrintStream out)
+			throws InterruptedException, IllegalStateException {
+		final AtomicInteger remaining = new AtomicInteger(count);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		ArrayList<Future<Void>> results = new ArrayList<Future<Void>>();
+		for (int i1 = 0; i1 < threads; i1++) {
+			final Random random = new Random(seed + i1);
+			results.add(pool.submit(new Callable<Void>() {
+				public Void call() {
+					boolean finished = false;
+					try {
+						while (remaining.get() > 0) {
+							String line = generateOne(random);
+							if (line != null && remaining.getAndDecrement() > 0) {
+								synchronized (out) {
+									out.println(line);
+								}
+							}
+						}
+						finished = true;
+					} finally {
+						//If this thread failed, stop the others after the puzzle they are making
+						if (!finished) {
+							remaining.set(0);
+						}
+					}
+					return null;
+				}
+			}));
+		}
+		pool.shutdown();
+		
+		for (Future<Void> result : results) {
+			try {
+				result.get();
+			} catch (ExecutionException e) {
+				pool.shutdownNow();
+				throw new IllegalStateException("A puzzle could not be made.", e.getCause());
+			}
+		}
+	}
+	
+	/**
+	 * Makes one puzzle
+	 * @param random Where to get the random choices from
+	 * @return The line to write for the puzzle, or null if it was already made
+	 */
+	public String generateOne(Random random) {
+		List<Placement> solution = randomSolution(random);
+		Collections.shuffle(solution, random);
+		
+		int numStarting = MIN_STARTING_PIECES + random.nextInt(MAX_STARTING_PIECES - MIN_STARTING_PIECES + 1);
+		ArrayList<Placement> starting = new ArrayList<Placement>(solution.subList(0, numStarting));
+		
+		//Add pieces from the solution until it is the only one
+		while (countSolutions(starting, null) > 1) {
+			starting.add(solution.get(starting.size()));
+		}
+		
+		//Then take out every piece that is not needed to keep it the only one,
+		//so the puzzle does not give away more than it has to
+		for (int i1 = starting.size() - 1; i1 >= 0 && starting.size() > 1; i1--) {
+			Placement removed = starting.remove(i1);
+			if (countSolutions(starting, null) > 1) {
+				starting.add(i1, removed);
+			}
+		}
+		
+		SearchStats stats = new SearchStats();
+		countSolutions(starting, stats);
+		Board board = new Board();
+		for (Placement placement : starting) {
+			board.place(placement);
+		}
+		if (!seen.add(board.getCanonicalKey())) {
+			return null;
+		}
+		return format(board, stats.getNodesExpanded());
+	}
+	
+	/**
+	 * Counts the solutions of a puzzle, up to 2. Solutions that only differ by swapping the two
+	 * identical pieces count once, since a player cannot tell them apart. Solutions that are each
+	 * other turned around count separately, even on a board that is the same turned around.
+	 * See SolutionEnumerator.
+	 * @param starting The starting pieces of the puzzle
+	 * @param stats The stats to add the search's counts to, or null
+	 * @return 1 if the puzzle has only one solution, 2 if it has more
+	 */
+	private static long countSolutions(List<Placement> starting, SearchStats stats) {
+		Board board = new Board();
+		for (Placement placement : starting) {
+			board.place(placement);
+		}
+		SearchOptions countOptions = new SearchOptions();
+		countOptions.setStats(stats);
+		return new SolutionEnumerator(board, countOptions).count(2);
+	}
+	
+	/**
+	 * Finds a random solved board, by searching from the empty board with the placements
+	 * tried in a random order
+	 * @param random Where to get the random order from
+	 * @return The placements of the solved board
+	 */
+	private List<Placement> randomSolution(Random random) {
+		Board board = new Board();
+		if (!fillRandomly(board, random)) {
+			throw new IllegalStateException("The empty board could not be solved.");
+		}
+		ArrayList<Placement> placements = new ArrayList<Placement>();
+		for (int i1 = 0; i1 < board.getMoveCount(); i1++) {
+			placements.add(board.getMove(i1));
+		}
+		return placements;
+	}
+	
+	/**
+	 * Places pieces on a board until it is solved, trying the placements in a random order
+	 * @param board The board to fill
+	 * @param random Where to get the random order from
+	 * @return True if the board was solved, false if it cannot be
+	 */
+	private boolean fillRandomly(Board board, Random random) {
+		if (board.isSolved()) {
+			return true;
+		}
+		ArrayList<Placement> moves = board.getMoves(options);
+		Collections.shuffle(moves, random);
+		for (Placement placement : moves) {
+			board.place(placement);
+			if (fillRandomly(board, random)) {
+				return true;
+			}
+			board.undo();
+		}
+		return false;
+	}
+	
+	/**
+	 * Gets the grade of a puzzle from how hard it was to prove
+	 * @param nodes The number of nodes expanded to prove the puzzle has one solution
+	 * @return One of GRADES
+	 */
+	public static String getGrade(long nodes) {
+		int grade = 0;
+		while (nodes > GRADE_LIMITS[grade]) {
+			grade++;
+		}
+		return GRADES[grade];
+	}
+	
+	/**
+	 * Writes a puzzle as one line of output
+	 * @param board The starting board, with its pieces on the move stack
+	 * @param nodes The number of nodes expanded to prove the puzzle has one solution
+	 * @return The line
+	 */
+	private static String format(Board board, long nodes) {
+		String line = getGrade(nodes) + "," + nodes + "," + board.getMoveCount() + ",";
+		for (int i1 = 0; i1 < board.getMoveCount(); i1++) {
+			Placement placement = board.getMove(i1);
+			if (i1 > 0) {
+				line += " ";
+			}
+			line += (placement.getPieceIndex() + 1) + ":" + placement.getRotation() + ":"
+					+ (placement.isSideFront() ? "F" : "B") + ":" + (placement.getX() + 1) + ":" + (placement.getY() + 1);
+		}
+		return line;
+	}
+	
+	/**
+	 * Reads the starting board of a puzzle from a line written by the generator
+	 * @param line The line of output
+	 * @return A new board with the starting pieces on it
+	 * @throws IllegalArgumentException If the line is not a puzzle, or its pieces do not fit
+	 */
+	public static Board parse(String line) throws IllegalArgumentException {
+		String[] fields = line.split(",");
+		if (fields.length != 4) {
+			throw new IllegalArgumentException("The puzzle line was not recognized.");
+		}
+		Board board = new Board();
+		for (String placementStr : fields[3].trim().split(" ")) {
+			String[] parts = placementStr.split(":");
+			if (parts.length != 5 || !(parts[2].equals("F") || parts[2].equals("B"))) {
+				throw new IllegalArgumentException("The placement " + placementStr + " was not recognized.");
+			}
+			Placement placement;
+			try {
+				int pieceIndex = Integer.parseInt(parts[0]) - 1;
+				int rotation = Integer.parseInt(parts[1]);
+				if (pieceIndex < 0 || pieceIndex >= Piece.NUM_PIECES || rotation < 0 || rotation > 3) {
+					throw new IllegalArgumentException("The placement " + placementStr + " was not recognized.");
+				}
+				placement = Placement.find(pieceIndex, rotation, parts[2].equals("F"),
+						Integer.parseInt(parts[3]) - 1, Integer.parseInt(parts[4]) - 1);
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("The placement " + placementStr + " was not recognized.");
+			}
+			if (placement == null) {
+				throw new IllegalArgumentException(Board.getPlaceMessage(Board.PLACE_OFF_EDGE));
+			}
+			int status = board.place(placement);
+			if (status != Board.PLACE_OK) {
+				throw new IllegalArgumentException(Board.getPlaceMessage(status));
+			}
+		}
+		return board;
+	}
+}
@@ -0,0 +1,90 @@
+/**
+ * The <code>RegionPruner</code> class finds boards that can never be solved because of an
+ * empty region no set of remaining pieces can fill.
+ * <br>
+ * The empty cells are split into regions. Two empty cells are in the same region if they are
+ * next to each other on the same side, or are the front and back of the same cell. Every piece
+ * covers all of its cells on the side it is placed from, and its pegs 2 deep also cover the
+ * other side, so the cells one piece covers are always in one region. That means each region
+ * has to be filled by its own set of remaining pieces, and some of them must have exactly the
+ * pegs for the region's cells on each side, see PegKnapsack.canFill. A region smaller than every
+ * remaining piece is the simplest case of this.
+ * <br>
+ * The regions are flood filled with masks, shifting a whole side at a time.
+ *
+ * @author Jordan Turley
+ * @author Will Edwards
+ */
+public class RegionPruner {
+	private static final long LEFT_COLUMN;
+	private static final long RIGHT_COLUMN;
+	static {
+		long left = 0;
+		long right = 0;
+		for (int y = 0; y < Board.HEIGHT; y++) {
+			left |= 1L << Board.cellIndex(0, y);
+			right |= 1L << Board.cellIndex(Board.WIDTH - 1, y);
+		}
+		LEFT_COLUMN = left;
+		RIGHT_COLUMN = right;
+	}
+	
+	/**
+	 * Checks if a board has an empty region that the remaining pieces cannot fill
+	 * @param frontMask The cells covered on the front
+	 * @param backMask The cells covered on the back
+	 * @param placedPieces One bit for each piece that has been placed
+	 * @return True if the board can never be solved
+	 */
+	public static boolean hasDeadRegion(long frontMask, long backMask, int placedPieces) {
+		long emptyFront = ~frontMask & Board.FULL_MASK;
+		long emptyBack = ~backMask & Board.FULL_MASK;
+		if (emptyFront == 0 && emptyBack == 0) {
+			return false;
+		}
+		
+		while (emptyFront != 0 || emptyBack != 0) {
+			long regionFront;
+			long regionBack;
+			if (emptyFront != 0) {
+				regionFront = Long.lowestOneBit(emptyFront);
+				regionBack = 0;
+			} else {
+				regionFront = 0;
+				regionBack = Long.lowestOneBit(emptyBack);
+			}
+			
+			//Grow the region until it stops changing
+			while (true) {
+				long nextFront = (regionFront | spread(regionFront) | regionBack) & emptyFront;
+				long nextBack = (regionBack | spread(regionBack) | regionFront) & emptyBack;
+				if (nextFront == regionFront && nextBack == regionBack) {
+					break;
+				}
+				regionFront = nextFront;
+				regionBack = nextBack;
+			}
+			
+			if (!PegKnapsack.canFill(~placedPieces, Long.bitCount(regionFront), Long.bitCount(regionBack),
+					Long.bitCount(regionFront & regionBack))) {
+				return true;
+			}
+			emptyFront &= ~regionFront;
+			emptyBack &= ~regionBack;
+		}
+		return false;
+	}
+	
+	/**
+	 * Gets the cells next to a set of cells on the same side
+	 * @param cells A mask of cells
+	 * @return A mask of the cells above, below, left and right of them
+	 */
+	private static long spread(long cells) {
+		long right = (cells & ~RIGHT_COLUMN) << 1;
+		long left = (cells & ~LEFT_COLUMN) >>> 1;
+		long down = cells << Board.WIDTH;
+		long up = cells >>> Board.WIDTH;
+		return (right | left | down | up) & Board.FULL_MASK;
+	}
+}
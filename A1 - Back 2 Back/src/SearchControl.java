@@ -0,0 +1,119 @@
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * The <code>SearchControl</code> class lets a search be stopped while it is running, and keeps
+ * the best partial solution it has found so far. Pass one to SearchOptions.setControl before
+ * solving. The A*, HDA*, IDA* and exact cover searches check it once for each node they expand,
+ * and throw a CancellationException when it has been cancelled or its deadline has passed.
+ * <br>
+ * The best partial solution is the path to the board with the most pieces placed that the
+ * search has expanded. It may not lead to a solution, but it is what the search thinks is most
+ * promising, so it can be shown before the search finishes. Board.solveAsync uses this to run
+ * a search in the background that can be cancelled.
+ *
+ * @author Jordan Turley
+ * @author Will Edwards
+ */
+public class SearchControl {
+	//The deadline when there is none
+	private static final long NO_DEADLINE = Long.MAX_VALUE;
+	
+	private volatile boolean cancelled;
+	private final long deadline;
+	
+	private volatile int bestPieces;
+	private volatile List<Action> bestPath;
+	
+	/**
+	 * Creates a new SearchControl with no deadline
+	 */
+	public SearchControl() {
+		this(0);
+	}
+	
+	/**
+	 * Creates a new SearchControl with a deadline
+	 * @param timeoutMillis The time from now the search can run for in milliseconds, or 0 for no deadline
+	 */
+	public SearchControl(long timeoutMillis) {
+		if (timeoutMillis < 0) {
+			throw new IllegalArgumentException("The timeout cannot be negative.");
+		}
+		cancelled = false;
+		deadline = timeoutMillis == 0 ? NO_DEADLINE : System.nanoTime() + timeoutMillis * 1000000;
+		bestPieces = -1;
+		bestPath = null;
+	}
+	
+	/**
+	 * Stops the search the next time it checks
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+	
+	/**
+	 * @return True if cancel was called
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+	
+	/**
+	 * @return True if the deadline has passed
+	 */
+	public boolean isTimedOut() {
+		return deadline != NO_DEADLINE && System.nanoTime() - deadline > 0;
+	}
+	
+	/**
+	 * @return True if the search should stop, because it was cancelled or the deadline has passed
+	 */
+	public boolean isStopped() {
+		return cancelled || isTimedOut();
+	}
+	
+	/**
+	 * Called by the searches for each node they expand
+	 * @throws CancellationException If the search should stop
+	 */
+	public void check() throws CancellationException {
+		if (cancelled) {
+			throw new CancellationException("The search was cancelled.");
+		}
+		if (isTimedOut()) {
+			throw new CancellationException("The search ran out of time.");
+		}
+	}
+	
+	/**
+	 * Checks if a board would be a better partial solution than the best one so far,
+	 * so a search only has to build its path if it is
+	 * @param placedPieces The number of pieces placed on the board
+	 * @return True if no board with as many pieces has been given to offerPartial
+	 */
+	public boolean isBetterPartial(int placedPieces) {
+		return placedPieces > bestPieces;
+	}
+	
+	/**
+	 * Keeps a partial solution if it has more pieces placed than the best one so far
+	 * @param placedPieces The number of pieces placed on the board the path leads to
+	 * @param path The actions to the board, from the last one back to the first
+	 */
+	public synchronized void offerPartial(int placedPieces, List<Action> path) {
+		if (placedPieces > bestPieces) {
+			bestPath = path;
+			bestPieces = placedPieces;
+		}
+	}
+	
+	/**
+	 * @return The path to the board with the most pieces placed that the search has expanded,
+	 * from the last action back to the first, or null if there is none yet
+	 */
+	public List<Action> getBestPartial() {
+		return bestPath;
+	}
+}
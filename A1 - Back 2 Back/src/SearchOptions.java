@@ -0,0 +1,306 @@
+/**
+ * The <code>SearchOptions</code> class holds the settings used when solving a Board.
+ * A new SearchOptions object has the default settings used by Board.solve().
+ * <br>
+ * The defaults turn on the closed set, dead region pruning and symmetry pruning, which the
+ * original A* search did not have. None of them change the cost of the solution found, but
+ * they do change the node counts. baseline() gives the settings that search like the
+ * original, for comparing node counts with it.
+ *
+ * @author Jordan Turley
+ * @author Will Edwards
+ */
+public class SearchOptions {
+	/**
+	 * The search algorithms a Board can be solved with
+	 */
+	public enum Algorithm {
+		/** A*, keeping every generated board. The default. */
+		A_STAR,
+		/** Iterative deepening A*, using memory only for the current path */
+		IDA_STAR,
+		/** Exact cover with Dancing Links, see ExactCoverSearch */
+		EXACT_COVER
+	}
+	
+	/**
+	 * The ways the A* and IDA* searches can generate the children of a board
+	 */
+	public enum Branching {
+		/** Every placement of every remaining piece. The default. */
+		ALL_PLACEMENTS,
+		/** Only placements covering the most constrained empty cell, see Board.getMoves */
+		CELL_ANCHORED,
+		/** Only placements of the remaining piece that fits in the fewest places, see Board.getMoves */
+		PIECE_ORDER
+	}
+	
+	/**
+	 * The estimates of the cost left to solve a board that the A* and IDA* searches can use
+	 */
+	public enum Heuristic {
+		/** Weighted counts of the empty cells, see Board.heuristic. The default. */
+		CELLS,
+		/** The exact cost left if the remaining pegs can fill each side, see PegKnapsack */
+		PEG_KNAPSACK
+	}
+	
+	/**
+	 * The open lists the sequential A* search can keep its frontier in, see OpenList
+	 */
+	public enum Frontier {
+		/** A binary heap, see HeapOpenList. The default. */
+		BINARY_HEAP,
+		/** A stack for each cost, see BucketOpenList */
+		BUCKETS
+	}
+	
+	//The size of the nogood cache of the depth-first searches by default
+	public static final int DEFAULT_NOGOOD_CACHE_MEGABYTES = 4;
+	
+	private Algorithm algorithm;
+	private Branching branching;
+	private Heuristic heuristic;
+	private Frontier frontier;
+	private boolean pruneDeadRegions;
+	private boolean pruneSymmetry;
+	private boolean pruneMirrors;
+	private boolean closedSet;
+	private int closedSetMegabytes;
+	private int nogoodCacheMegabytes;
+	private int threads;
+	private SearchStats stats;
+	private SearchControl control;
+	private SolutionCache solutionCache;
+	
+	/**
+	 * Creates a new SearchOptions object with the default settings
+	 */
+	public SearchOptions() {
+		algorithm = Algorithm.A_STAR;
+		branching = Branching.ALL_PLACEMENTS;
+		heuristic = Heuristic.CELLS;
+		frontier = Frontier.BINARY_HEAP;
+		pruneDeadRegions = true;
+		pruneSymmetry = true;
+		pruneMirrors = true;
+		closedSet = true;
+		closedSetMegabytes = 0;
+		nogoodCacheMegabytes = DEFAULT_NOGOOD_CACHE_MEGABYTES;
+		threads = 1;
+		stats = null;
+		control = null;
+		solutionCache = null;
+	}
+	
+	/**
+	 * Creates a new SearchOptions object with the same settings as another one.
+	 * The stats, control and solution cache objects are shared, not copied.
+	 * @param options The settings to copy
+	 */
+	public SearchOptions(SearchOptions options) {
+		algorithm = options.algorithm;
+		branching = options.branching;
+		heuristic = options.heuristic;
+		frontier = options.frontier;
+		pruneDeadRegions = options.pruneDeadRegions;
+		pruneSymmetry = options.pruneSymmetry;
+		pruneMirrors = options.pruneMirrors;
+		closedSet = options.closedSet;
+		closedSetMegabytes = options.closedSetMegabytes;
+		nogoodCacheMegabytes = options.nogoodCacheMegabytes;
+		threads = options.threads;
+		stats = options.stats;
+		control = options.control;
+		solutionCache = options.solutionCache;
+	}
+	
+	/**
+	 * Creates a new SearchOptions object that searches like the original Board.solve: A* over
+	 * every placement, with no closed set and no pruning
+	 * @return The new SearchOptions object
+	 */
+	public static SearchOptions baseline() {
+		SearchOptions options = new SearchOptions();
+		options.setClosedSet(false);
+		options.setPruneDeadRegions(false);
+		options.setPruneSymmetry(false);
+		return options;
+	}
+	
+	public Algorithm getAlgorithm() {
+		return algorithm;
+	}
+	
+	public void setAlgorithm(Algorithm algorithm) {
+		this.algorithm = algorithm;
+	}
+	
+	public Branching getBranching() {
+		return branching;
+	}
+	
+	public void setBranching(Branching branching) {
+		this.branching = branching;
+	}
+	
+	public Heuristic getHeuristic() {
+		return heuristic;
+	}
+	
+	public void setHeuristic(Heuristic heuristic) {
+		this.heuristic = heuristic;
+	}
+	
+	public Frontier getFrontier() {
+		return frontier;
+	}
+	
+	public void setFrontier(Frontier frontier) {
+		this.frontier = frontier;
+	}
+	
+	/**
+	 * @return True if boards with an empty region the remaining pieces cannot fill are
+	 * dropped when they are generated, see RegionPruner. On by default. The original
+	 * Board.solve did not prune, so turn this off to compare node counts with it.
+	 */
+	public boolean getPruneDeadRegions() {
+		return pruneDeadRegions;
+	}
+	
+	public void setPruneDeadRegions(boolean pruneDeadRegions) {
+		this.pruneDeadRegions = pruneDeadRegions;
+	}
+	
+	/**
+	 * @return True if boards that are the same as one already generated, by swapping
+	 * identical pieces or by turning the board around, are dropped. See Board.getMoves
+	 * and Board.getCanonicalKey. On by default.
+	 */
+	public boolean getPruneSymmetry() {
+		return pruneSymmetry;
+	}
+	
+	public void setPruneSymmetry(boolean pruneSymmetry) {
+		this.pruneSymmetry = pruneSymmetry;
+	}
+	
+	/**
+	 * @return True if, with symmetry pruning on, only one of each placement and its mirror is
+	 * tried on a board that is the same turned around. Searches for one solution still match
+	 * boards turned around in their closed sets when this is off, so it only changes which
+	 * solutions SolutionEnumerator finds. On by default.
+	 */
+	public boolean getPruneMirrors() {
+		return pruneMirrors;
+	}
+	
+	public void setPruneMirrors(boolean pruneMirrors) {
+		this.pruneMirrors = pruneMirrors;
+	}
+	
+	/**
+	 * @return True if states that were already reached are dropped instead of searched again.
+	 * On by default.
+	 */
+	public boolean getClosedSet() {
+		return closedSet;
+	}
+	
+	public void setClosedSet(boolean closedSet) {
+		this.closedSet = closedSet;
+	}
+	
+	/**
+	 * @return The most memory the closed set may use in megabytes, or 0 for no limit
+	 */
+	public int getClosedSetMegabytes() {
+		return closedSetMegabytes;
+	}
+	
+	/**
+	 * Limits the memory used by the closed set. When it is full, old states are evicted
+	 * and may be searched again if they are reached again.
+	 * @param closedSetMegabytes The limit in megabytes, or 0 for no limit
+	 */
+	public void setClosedSetMegabytes(int closedSetMegabytes) {
+		if (closedSetMegabytes < 0) {
+			throw new IllegalArgumentException("The closed set limit cannot be negative.");
+		}
+		this.closedSetMegabytes = closedSetMegabytes;
+	}
+	
+	/**
+	 * @return The memory used by the cache of states the depth-first searches have proven
+	 * cannot be solved in megabytes, or 0 if there is no cache. See NogoodCache.
+	 */
+	public int getNogoodCacheMegabytes() {
+		return nogoodCacheMegabytes;
+	}
+	
+	/**
+	 * Sets the size of the nogood cache used by IDA*, the exact cover search and
+	 * SolutionEnumerator. The memory is taken when the search starts, whatever it finds.
+	 * @param nogoodCacheMegabytes The size in megabytes, or 0 for no cache
+	 */
+	public void setNogoodCacheMegabytes(int nogoodCacheMegabytes) {
+		if (nogoodCacheMegabytes < 0) {
+			throw new IllegalArgumentException("The nogood cache size cannot be negative.");
+		}
+		this.nogoodCacheMegabytes = nogoodCacheMegabytes;
+	}
+	
+	/**
+	 * @return The number of worker threads used to search
+	 */
+	public int getThreads() {
+		return threads;
+	}
+	
+	/**
+	 * Sets the number of worker threads used to search. With more than one thread, A* is
+	 * run as hash distributed A*, see ParallelSearch.
+	 * @param threads The number of threads, at least 1
+	 */
+	public void setThreads(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("There must be at least one thread.");
+		}
+		this.threads = threads;
+	}
+	
+	/**
+	 * @return The object the counts from the search are added to, or null if they are not kept
+	 */
+	public SearchStats getStats() {
+		return stats;
+	}
+	
+	public void setStats(SearchStats stats) {
+		this.stats = stats;
+	}
+	
+	/**
+	 * @return The object that can stop the search and keeps its best partial solution,
+	 * or null if the search runs until it finishes
+	 */
+	public SearchControl getControl() {
+		return control;
+	}
+	
+	public void setControl(SearchControl control) {
+		this.control = control;
+	}
+	
+	/**
+	 * @return The cache Board.solve looks boards up in before searching, or null if there is none
+	 */
+	public SolutionCache getSolutionCache() {
+		return solutionCache;
+	}
+	
+	public void setSolutionCache(SolutionCache solutionCache) {
+		this.solutionCache = solutionCache;
+	}
+}
@@ -0,0 +1,313 @@
+import java.util.Arrays;
+
+/**
+ * The <code>SearchStats</code> class collects counts about a search, such as how many nodes
+ * were expanded. Pass one to SearchOptions.setStats before solving to have it filled in.
+ * The counts are added to, so one object can collect the totals of several searches.
+ * <br>
+ * Besides the totals, the A*, HDA* and IDA* searches count the nodes expanded, the children
+ * generated and the dead ends (nodes with no children) at each depth, the duplicate states they
+ * dropped, and how far the heuristic was from the real cost on each board of the solution they
+ * found. A search that expands many dead ends has a heuristic that does not see them coming;
+ * one with a large peak frontier and few dead ends is running out of memory instead.
+ * <br>
+ * Counting is only adding to fields, so it is cheap enough to leave on. A Listener can be given
+ * the counts while a search is running, every so many expanded nodes.
+ *
+ * @author Jordan Turley
+ * @author Will Edwards
+ */
+public class SearchStats {
+	//How many expanded nodes there are between calls to the listener by default
+	public static final long DEFAULT_SAMPLE_INTERVAL = 1 << 16;
+	
+	//Depths go from 0 at the start to one for each piece placed
+	private static final int NUM_DEPTHS = Piece.NUM_PIECES + 1;
+	
+	//Heuristic errors are counted in halves, from -MAX_ERROR_HALVES to MAX_ERROR_HALVES.
+	//Larger errors are counted in the bins at the ends.
+	private static final int MAX_ERROR_HALVES = 4 * Board.NUM_CELLS;
+	
+	/**
+	 * Gets the counts of a search while it is running
+	 */
+	public interface Listener {
+		/**
+		 * Called every sample interval of expanded nodes, while the stats are locked,
+		 * so the counts do not change during the call. With more than one thread, each
+		 * worker counts on its own and calls this with its own stats.
+		 * @param stats The stats being counted
+		 */
+		void progress(SearchStats stats);
+	}
+	
+	private long nodesExpanded;
+	private long nodesGenerated;
+	private long peakFrontierSize;
+	private long duplicatesPruned;
+	private long[] expandedAtDepth;
+	private long[] generatedAtDepth;
+	private long[] deadEndsAtDepth;
+	private long[] heuristicErrors;
+	
+	private Listener listener;
+	private long sampleInterval;
+	
+	/**
+	 * Creates a new SearchStats object with every count at 0
+	 */
+	public SearchStats() {
+		expandedAtDepth = new long[NUM_DEPTHS];
+		generatedAtDepth = new long[NUM_DEPTHS];
+		deadEndsAtDepth = new long[NUM_DEPTHS];
+		heuristicErrors = new long[2 * MAX_ERROR_HALVES + 1];
+		listener = null;
+		sampleInterval = DEFAULT_SAMPLE_INTERVAL;
+		reset();
+	}
+	
+	/**
+	 * Sets every count back to 0
+	 */
+	public synchronized void reset() {
+		nodesExpanded = 0;
+		nodesGenerated = 0;
+		peakFrontierSize = 0;
+		duplicatesPruned = 0;
+		Arrays.fill(expandedAtDepth, 0);
+		Arrays.fill(generatedAtDepth, 0);
+		Arrays.fill(deadEndsAtDepth, 0);
+		Arrays.fill(heuristicErrors, 0);
+	}
+	
+	/**
+	 * Sets the listener to give the counts to while a search is running
+	 * @param listener The listener, or null for none
+	 * @param sampleInterval How many expanded nodes there are between calls
+	 */
+	public synchronized void setListener(Listener listener, long sampleInterval) {
+		if (sampleInterval < 1) {
+			throw new IllegalArgumentException("The sample interval must be at least 1.");
+		}
+		this.listener = listener;
+		this.sampleInterval = sampleInterval;
+	}
+	
+	public synchronized Listener getListener() {
+		return listener;
+	}
+	
+	public synchronized long getSampleInterval() {
+		return sampleInterval;
+	}
+	
+	/**
+	 * Adds the counts from one search, or one thread of a search, that does not count each node
+	 * @param expanded The number of nodes expanded
+	 * @param generated The number of nodes generated
+	 * @param peakFrontier The most nodes waiting to be expanded at once. For the depth-first
+	 * searches this is the deepest the search went.
+	 */
+	public synchronized void record(long expanded, long generated, long peakFrontier) {
+		nodesExpanded += expanded;
+		nodesGenerated += generated;
+		peakFrontierSize = Math.max(peakFrontierSize, peakFrontier);
+	}
+	
+	/**
+	 * Counts one expanded node, and gives the counts to the listener if it is time to
+	 * @param depth The number of pieces placed since the start of the search
+	 * @param children The number of children generated from the node
+	 */
+	public synchronized void recordExpansion(int depth, int children) {
+		nodesExpanded++;
+		nodesGenerated += children;
+		int bin = Math.min(depth, NUM_DEPTHS - 1);
+		expandedAtDepth[bin]++;
+		generatedAtDepth[bin] += children;
+		if (children == 0) {
+			deadEndsAtDepth[bin]++;
+		}
+		if (listener != null && nodesExpanded % sampleInterval == 0) {
+			listener.progress(this);
+		}
+	}
+	
+	/**
+	 * Counts a node that was dropped because its state had already been reached
+	 */
+	public synchronized void recordDuplicate() {
+		duplicatesPruned++;
+	}
+	
+	/**
+	 * Keeps the most nodes waiting to be expanded at once
+	 * @param size The number of nodes waiting now
+	 */
+	public synchronized void recordFrontierSize(long size) {
+		peakFrontierSize = Math.max(peakFrontierSize, size);
+	}
+	
+	/**
+	 * Counts how far the heuristic was from the real cost left on a board
+	 * @param error The heuristic's estimate minus the real cost. Positive if it was too high.
+	 */
+	public synchronized void recordHeuristicError(double error) {
+		long halves = Math.round(error * 2);
+		halves = Math.max(-MAX_ERROR_HALVES, Math.min(MAX_ERROR_HALVES, halves));
+		heuristicErrors[(int) halves + MAX_ERROR_HALVES]++;
+	}
+	
+	/**
+	 * Adds every count from another SearchStats object, such as the one a worker thread kept
+	 * @param stats The counts to add
+	 */
+	public void add(SearchStats stats) {
+		long expanded;
+		long generated;
+		long peakFrontier;
+		long duplicates;
+		long[] expandedDepths;
+		long[] generatedDepths;
+		long[] deadEndDepths;
+		long[] errors;
+		//Copy the other counts first, so the two objects are never locked at once
+		synchronized (stats) {
+			expanded = stats.nodesExpanded;
+			generated = stats.nodesGenerated;
+			peakFrontier = stats.peakFrontierSize;
+			duplicates = stats.duplicatesPruned;
+			expandedDepths = stats.expandedAtDepth.clone();
+			generatedDepths = stats.generatedAtDepth.clone();
+			deadEndDepths = stats.deadEndsAtDepth.clone();
+			errors = stats.heuristicErrors.clone();
+		}
+		synchronized (this) {
+			nodesExpanded += expanded;
+			nodesGenerated += generated;
+			peakFrontierSize = Math.max(peakFrontierSize, peakFrontier);
+			duplicatesPruned += duplicates;
+			for (int i1 = 0; i1 < NUM_DEPTHS; i1++) {
+				expandedAtDepth[i1] += expandedDepths[i1];
+				generatedAtDepth[i1] += generatedDepths[i1];
+				deadEndsAtDepth[i1] += deadEndDepths[i1];
+			}
+			for (int i1 = 0; i1 < heuristicErrors.length; i1++) {
+				heuristicErrors[i1] += errors[i1];
+			}
+		}
+	}
+	
+	/**
+	 * @return The number of nodes whose children were generated
+	 */
+	public synchronized long getNodesExpanded() {
+		return nodesExpanded;
+	}
+	
+	/**
+	 * @return The number of child nodes generated
+	 */
+	public synchronized long getNodesGenerated() {
+		return nodesGenerated;
+	}
+	
+	/**
+	 * @return The most nodes waiting to be expanded at once
+	 */
+	public synchronized long getPeakFrontierSize() {
+		return peakFrontierSize;
+	}
+	
+	/**
+	 * @return The number of nodes dropped because their state had already been reached
+	 */
+	public synchronized long getDuplicatesPruned() {
+		return duplicatesPruned;
+	}
+	
+	/**
+	 * @return The number of depths counted, one more than the most pieces that can be placed
+	 */
+	public int getNumDepths() {
+		return NUM_DEPTHS;
+	}
+	
+	/**
+	 * @param depth The number of pieces placed since the start of the search
+	 * @return The number of nodes expanded at that depth
+	 */
+	public synchronized long getExpandedAtDepth(int depth) {
+		return expandedAtDepth[depth];
+	}
+	
+	/**
+	 * @param depth The number of pieces placed since the start of the search
+	 * @return The number of children generated from nodes at that depth
+	 */
+	public synchronized long getGeneratedAtDepth(int depth) {
+		return generatedAtDepth[depth];
+	}
+	
+	/**
+	 * @param depth The number of pieces placed since the start of the search
+	 * @return The number of nodes expanded at that depth that had no children
+	 */
+	public synchronized long getDeadEndsAtDepth(int depth) {
+		return deadEndsAtDepth[depth];
+	}
+	
+	/**
+	 * @param depth The number of pieces placed since the start of the search
+	 * @return The average number of children of a node expanded at that depth, or 0 if none were
+	 */
+	public synchronized double getBranchingFactor(int depth) {
+		if (expandedAtDepth[depth] == 0) {
+			return 0;
+		}
+		return (double) generatedAtDepth[depth] / expandedAtDepth[depth];
+	}
+	
+	/**
+	 * @param error A heuristic error, a multiple of 0.5
+	 * @return The number of boards on solution paths the heuristic was off by that much for
+	 */
+	public synchronized long getHeuristicErrorCount(double error) {
+		long halves = Math.round(error * 2);
+		if (halves < -MAX_ERROR_HALVES || halves > MAX_ERROR_HALVES) {
+			return 0;
+		}
+		return heuristicErrors[(int) halves + MAX_ERROR_HALVES];
+	}
+	
+	@Override
+	public synchronized String toString() {
+		String str = "Nodes expanded: " + nodesExpanded + ", nodes generated: " + nodesGenerated
+				+ ", peak frontier size: " + peakFrontierSize;
+		if (duplicatesPruned > 0) {
+			str += ", duplicates pruned: " + duplicatesPruned;
+		}
+		
+		String depths = "";
+		for (int i1 = 0; i1 < NUM_DEPTHS; i1++) {
+			if (expandedAtDepth[i1] > 0) {
+				depths += "\n  depth " + i1 + ": expanded " + expandedAtDepth[i1] + ", branching factor "
+						+ String.format("%.2f", getBranchingFactor(i1)) + ", dead ends " + deadEndsAtDepth[i1];
+			}
+		}
+		if (!depths.isEmpty()) {
+			str += depths;
+		}
+		
+		String errors = "";
+		for (int i1 = 0; i1 < heuristicErrors.length; i1++) {
+			if (heuristicErrors[i1] > 0) {
+				errors += " " + (i1 - MAX_ERROR_HALVES) / 2.0 + ":" + heuristicErrors[i1];
+			}
+		}
+		if (!errors.isEmpty()) {
+			str += "\n  heuristic error on the solution path (error:boards):" + errors;
+		}
+		return str;
+	}
+}
@@ -0,0 +1,538 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The <code>SolutionCache</code> class keeps the solutions found for board states in a file, so
+ * a state solved in one run of Solver or Game is not solved again in the next. Pass one to
+ * SearchOptions.setSolutionCache, and Board.solve looks the board up before searching and adds
+ * its solution after. Each state on the path of a solution is added, since the rest of the path
+ * solves it too.
+ * <br>
+ * States are the covered cells on both sides and the placed pieces. A board and the same board
+ * turned around have the same solutions turned around, so only the lower of the two is kept,
+ * and a solution is turned around when it is read for the other one.
+ * <br>
+ * The cache is two files. The main file is sorted by state and memory mapped, so a lookup is a
+ * binary search that only reads the pages it needs. States added during a run are appended to
+ * a journal next to it, and kept in memory until the journal is merged into the main file by
+ * compact, which happens once JOURNAL_LIMIT states have been added and when the cache is closed.
+ * Only one process should use a cache at a time.
+ * <br>
+ * The cache only saves time, so a failed write does not stop a search. The states are kept in
+ * memory and written by the next compact, and getWriteFailures counts the failures. A write
+ * that fails part way through a state cuts the journal back to the last whole state, so the
+ * states appended after it still line up.
+ * <br>
+ * Both files are big-endian. The main file starts with the int MAGIC, the int VERSION and the int
+ * number of states, and the journal with MAGIC and VERSION. Then come the states, RECORD_BYTES
+ * each: a long with the front mask and the back mask shifted up by Board.NUM_CELLS, a short with
+ * the placed pieces, a byte with the number of moves, and Piece.NUM_PIECES short move codes,
+ * see Placement.getMoveCode. Unused move codes are 0. A cut off state at the end of the journal,
+ * left by a run that stopped while writing it, is ignored.
+ *
+ * @author Jordan Turley
+ * @author Will Edwards
+ */
+public class SolutionCache {
+	public static final int MAGIC = 0x42324253; //"B2BS"
+	public static final int VERSION = 1;
+	public static final String DEFAULT_FILE = "solutions.b2c";
+	public static final String JOURNAL_SUFFIX = ".journal";
+	
+	//Bytes before the states in the main file and the journal, and bytes for each state
+	public static final int HEADER_BYTES = 12;
+	public static final int JOURNAL_HEADER_BYTES = 8;
+	public static final int RECORD_BYTES = 8 + 2 + 1 + 2 * Piece.NUM_PIECES;
+	
+	//The number of states added before the journal is merged into the main file
+	public static final int JOURNAL_LIMIT = 4096;
+	
+	private File file;
+	private File journalFile;
+	private ByteBuffer buffer;
+	private int size;
+	private TreeMap<State, int[]> journal;
+	private FileOutputStream journalFileOut;
+	//Null if the journal could not be cut back after a failed write, until the next compact
+	private DataOutputStream journalOut;
+	//The length of the journal up to the end of the last whole state written
+	private long journalLength;
+	private int writeFailures;
+	private boolean closed;
+	
+	/**
+	 * Opens a cache, creating its files if they do not exist
+	 * @param file The main file. The journal is the same file name with JOURNAL_SUFFIX added.
+	 * @return The cache
+	 * @throws IOException If the files cannot be read or written, or are not solution cache files
+	 */
+	public static SolutionCache open(File file) throws IOException {
+		SolutionCache cache = new SolutionCache(file);
+		cache.mapMainFile();
+		cache.readJournal();
+		cache.openJournal();
+		return cache;
+	}
+	
+	private SolutionCache(File file) {
+		this.file = file;
+		journalFile = new File(file.getPath() + JOURNAL_SUFFIX);
+		journal = new TreeMap<State, int[]>();
+		writeFailures = 0;
+		closed = false;
+	}
+	
+	/**
+	 * Gets the solution of a board, if it is in the cache
+	 * @param board The board to look up
+	 * @return A List of Action objects to represent the moves to a solved board, in the same
+	 * order as Board.solve, or null if the board is not in the cache or the cache is closed
+	 */
+	public synchronized List<Action> get(Board board) {
+		if (closed) {
+			return null;
+		}
+		State state = new State(board);
+		boolean mirrored = state.isMirrored();
+		state = state.getCanonical();
+		
+		int[] moveCodes = journal.get(state);
+		if (moveCodes == null) {
+			int record = findRecord(state);
+			if (record < 0) {
+				return null;
+			}
+			moveCodes = readMoveCodes(HEADER_BYTES + record * RECORD_BYTES);
+		}
+		return toActions(board, moveCodes, mirrored);
+	}
+	
+	/**
+	 * Adds the solution of a board, and of every board on the way to solving it
+	 * @param board The board that was solved
+	 * @param actions The moves to a solved board, in the same order as Board.solve
+	 * @throws IllegalArgumentException If the actions do not solve the board
+	 */
+	public synchronized void put(Board board, List<Action> actions) throws IllegalArgumentException {
+		if (closed) {
+			return;
+		}
+		//Check every move first, so nothing is added for a path that does not solve the board
+		ArrayList<Placement> placements = new ArrayList<Placement>();
+		Board working = (Board) board.clone();
+		for (int i1 = actions.size() - 1; i1 >= 0; i1--) {
+			Placement placement = toPlacement(actions.get(i1));
+			if (placement == null || working.tryPlace(placement) != Board.PLACE_OK) {
+				throw new IllegalArgumentException("The actions do not solve the board.");
+			}
+			placements.add(placement);
+		}
+		if (!working.isSolved()) {
+			throw new IllegalArgumentException("The actions do not solve the board.");
+		}
+		
+		working = (Board) board.clone();
+		int added = 0;
+		try {
+			for (int i1 = 0; i1 < placements.size(); i1++) {
+				State state = new State(working);
+				boolean mirrored = state.isMirrored();
+				state = state.getCanonical();
+				if (!journal.containsKey(state) && findRecord(state) < 0) {
+					int[] moveCodes = new int[placements.size() - i1];
+					for (int i2 = 0; i2 < moveCodes.length; i2++) {
+						Placement placement = placements.get(i1 + i2);
+						moveCodes[i2] = (mirrored ? mirror(placement) : placement).getMoveCode();
+					}
+					//Kept even if the write fails, so the next compact saves it
+					journal.put(state, moveCodes);
+					if (journalOut != null) {
+						writeRecord(journalOut, state, moveCodes);
+						added++;
+					}
+				}
+				working.tryPlace(placements.get(i1));
+			}
+			if (journalOut != null) {
+				journalOut.flush();
+				journalLength += (long) added * RECORD_BYTES;
+			}
+		} catch (IOException e) {
+			writeFailures++;
+			cutJournal();
+		}
+		if (journal.size() >= JOURNAL_LIMIT) {
+			try {
+				compact();
+			} catch (IOException e) {
+				writeFailures++;
+			}
+		}
+	}
+	
+	/**
+	 * Cuts the journal back to the last whole state after a failed write, and drops any of the
+	 * write still buffered. If the journal cannot be cut it is not written to until the next compact.
+	 */
+	private void cutJournal() {
+		try {
+			//The stream writes at the channel's position, which truncate moves back
+			journalFileOut.getChannel().truncate(journalLength);
+			journalOut = new DataOutputStream(new BufferedOutputStream(journalFileOut));
+		} catch (IOException e) {
+			journalOut = null;
+			try {
+				journalFileOut.close();
+			} catch (IOException closeFailure) {
+				//Nothing more can be done, it is opened again by the next compact
+			}
+		}
+	}
+	
+	/**
+	 * Merges the journal into the main file. The new main file is written next to the old one
+	 * and renamed over it, so a run that stops part way leaves the old one whole.
+	 * @throws IOException If the files cannot be written
+	 */
+	public synchronized void compact() throws IOException {
+		if (journal.isEmpty()) {
+			return;
+		}
+		File temp = new File(file.getPath() + ".tmp");
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+			try {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeInt(size + journal.size());
+				
+				//Both are sorted, so they are merged like in merge sort
+				int record = 0;
+				Map.Entry<State, int[]> entry = journal.firstEntry();
+				while (record < size || entry != null) {
+					int offset = HEADER_BYTES + record * RECORD_BYTES;
+					if (entry == null || (record < size && readState(offset).compareTo(entry.getKey()) < 0)) {
+						writeRecord(out, readState(offset), readMoveCodes(offset));
+						record++;
+					} else {
+						writeRecord(out, entry.getKey(), entry.getValue());
+						entry = journal.higherEntry(entry.getKey());
+					}
+				}
+			} finally {
+				out.close();
+			}
+		} catch (IOException e) {
+			//The old main file and the journal are left as they are, so nothing is lost
+			temp.delete();
+			throw e;
+		}
+		
+		if (!temp.renameTo(file)) {
+			//Windows will not rename over a file that exists
+			if (!file.delete() || !temp.renameTo(file)) {
+				throw new IOException("The solution cache " + file + " could not be replaced.");
+			}
+		}
+		mapMainFile();
+		journal.clear();
+		if (journalOut != null) {
+			journalOut.close();
+		}
+		journalFile.delete();
+		openJournal();
+	}
+	
+	/**
+	 * Merges the journal into the main file and closes the journal. States are not added or found after this.
+	 * @throws IOException If the files cannot be written. The journal is kept, and read again by open.
+	 */
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			compact();
+		} finally {
+			if (journalOut != null) {
+				journalOut.close();
+			}
+		}
+		journalFile.delete();
+	}
+	
+	/**
+	 * @return The number of states in the cache
+	 */
+	public synchronized int size() {
+		return size + journal.size();
+	}
+	
+	/**
+	 * @return The number of times states could not be written since the cache was opened.
+	 * The states are kept in memory, and saved if a later compact or close succeeds.
+	 */
+	public synchronized int getWriteFailures() {
+		return writeFailures;
+	}
+	
+	/**
+	 * Maps the main file, or makes an empty one if there is none
+	 * @throws IOException If the file cannot be read or is not a solution cache
+	 */
+	private void mapMainFile() throws IOException {
+		if (!file.exists()) {
+			DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+			try {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeInt(0);
+			} finally {
+				out.close();
+			}
+		}
+		
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = in.getChannel();
+			//The mapping stays valid after the file is closed
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} finally {
+			in.close();
+		}
+		if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+			throw new IOException("The file is not a solution cache.");
+		}
+		if (buffer.getInt(4) != VERSION) {
+			throw new IOException("The solution cache version " + buffer.getInt(4) + " is not supported.");
+		}
+		size = buffer.getInt(8);
+		if (size < 0 || HEADER_BYTES + (long) size * RECORD_BYTES > buffer.limit()) {
+			throw new IOException("The solution cache is cut off.");
+		}
+	}
+	
+	/**
+	 * Reads the states in the journal left by the last run, if there is one
+	 * @throws IOException If the journal cannot be read or is not a solution cache journal
+	 */
+	private void readJournal() throws IOException {
+		if (!journalFile.exists()) {
+			return;
+		}
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)));
+		try {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException("The file is not a solution cache journal.");
+			}
+			byte[] record = new byte[RECORD_BYTES];
+			while (true) {
+				try {
+					in.readFully(record);
+				} catch (EOFException e) {
+					break;
+				}
+				ByteBuffer recordBuffer = ByteBuffer.wrap(record);
+				journal.put(readState(recordBuffer, 0), readMoveCodes(recordBuffer, 0));
+			}
+		} catch (EOFException e) {
+			throw new IOException("The solution cache journal is cut off.", e);
+		} finally {
+			in.close();
+		}
+	}
+	
+	/**
+	 * Opens the journal to append to, writing its header if it is new. The states already in
+	 * it are written again, so a state cut off at the end is not left in the middle.
+	 * @throws IOException If the journal cannot be written
+	 */
+	private void openJournal() throws IOException {
+		journalFileOut = new FileOutputStream(journalFile);
+		journalOut = new DataOutputStream(new BufferedOutputStream(journalFileOut));
+		journalOut.writeInt(MAGIC);
+		journalOut.writeInt(VERSION);
+		for (Map.Entry<State, int[]> entry : journal.entrySet()) {
+			writeRecord(journalOut, entry.getKey(), entry.getValue());
+		}
+		journalOut.flush();
+		journalLength = JOURNAL_HEADER_BYTES + (long) journal.size() * RECORD_BYTES;
+	}
+	
+	/**
+	 * Finds a state in the main file with a binary search
+	 * @param state The canonical state
+	 * @return The position of the state in the main file, or -1 if it is not there
+	 */
+	private int findRecord(State state) {
+		int low = 0;
+		int high = size - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int compare = readState(HEADER_BYTES + mid * RECORD_BYTES).compareTo(state);
+			if (compare < 0) {
+				low = mid + 1;
+			} else if (compare > 0) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+	
+	private State readState(int offset) {
+		return readState(buffer, offset);
+	}
+	
+	private static State readState(ByteBuffer buffer, int offset) {
+		long cells = buffer.getLong(offset);
+		return new State(cells & Board.FULL_MASK, cells >>> Board.NUM_CELLS, buffer.getShort(offset + 8));
+	}
+	
+	private int[] readMoveCodes(int offset) {
+		return readMoveCodes(buffer, offset);
+	}
+	
+	private static int[] readMoveCodes(ByteBuffer buffer, int offset) {
+		int count = Math.max(0, Math.min(Piece.NUM_PIECES, buffer.get(offset + 10)));
+		int[] moveCodes = new int[count];
+		for (int i1 = 0; i1 < count; i1++) {
+			moveCodes[i1] = buffer.getShort(offset + 11 + 2 * i1);
+		}
+		return moveCodes;
+	}
+	
+	/**
+	 * Writes one state and its solution
+	 */
+	private static void writeRecord(DataOutputStream out, State state, int[] moveCodes) throws IOException {
+		out.writeLong(state.front | state.back << Board.NUM_CELLS);
+		out.writeShort(state.placed);
+		out.writeByte(moveCodes.length);
+		for (int i1 = 0; i1 < Piece.NUM_PIECES; i1++) {
+			out.writeShort(i1 < moveCodes.length ? moveCodes[i1] : 0);
+		}
+	}
+	
+	/**
+	 * Turns the move codes of a solution into actions, checking that they solve the board.
+	 * A damaged entry is treated as if it was not in the cache.
+	 * @param board The board the solution is for
+	 * @param moveCodes The solution, in the order the moves are made, for the canonical state
+	 * @param mirrored True if the board is the canonical state turned around
+	 * @return The actions, in the same order as Board.solve, or null if they do not solve the board
+	 */
+	private static List<Action> toActions(Board board, int[] moveCodes, boolean mirrored) {
+		Board working = (Board) board.clone();
+		ArrayList<Action> actions = new ArrayList<Action>();
+		for (int moveCode : moveCodes) {
+			Placement placement = Placement.fromMoveCode(moveCode);
+			if (placement != null && mirrored) {
+				placement = mirror(placement);
+			}
+			if (placement == null || working.tryPlace(placement) != Board.PLACE_OK) {
+				return null;
+			}
+			actions.add(0, placement.toAction());
+		}
+		return working.isSolved() ? actions : null;
+	}
+	
+	/**
+	 * Finds the placement an action stands for
+	 * @return The placement, or null if there is none
+	 */
+	private static Placement toPlacement(Action action) {
+		return Placement.find(action.getPiece().getIndex(), action.getPiece().getRotation(),
+				action.isSideFront(), action.getX(), action.getY());
+	}
+	
+	/**
+	 * Gets the placement that covers the same cells as another, on a board turned around:
+	 * the same piece, rotation and x-y location placed from the other side
+	 */
+	private static Placement mirror(Placement placement) {
+		return Placement.find(placement.getPieceIndex(), placement.getRotation(), !placement.isSideFront(),
+				placement.getX(), placement.getY());
+	}
+	
+	/**
+	 * A board state: the covered cells on each side and the placed pieces, in the order they
+	 * are sorted in the files
+	 */
+	private static class State implements Comparable<State> {
+		private long front;
+		private long back;
+		private int placed;
+		
+		State(Board board) {
+			this(board.getFrontMask(), board.getBackMask(), board.getPlacedPieces());
+		}
+		
+		State(long front, long back, int placed) {
+			this.front = front;
+			this.back = back;
+			this.placed = placed;
+		}
+		
+		/**
+		 * @return The state turned around, with the front and back swapped and flipped horizontally
+		 */
+		State getMirror() {
+			return new State(Board.mirrorMask(back), Board.mirrorMask(front), placed);
+		}
+		
+		/**
+		 * @return The lower of this state and the state turned around
+		 */
+		State getCanonical() {
+			return isMirrored() ? getMirror() : this;
+		}
+		
+		/**
+		 * @return True if the state turned around is lower, so it is the one kept
+		 */
+		boolean isMirrored() {
+			return getMirror().compareTo(this) < 0;
+		}
+		
+		public int compareTo(State state) {
+			int compare = Long.compare(front | back << Board.NUM_CELLS, state.front | state.back << Board.NUM_CELLS);
+			if (compare != 0) {
+				return compare;
+			}
+			return Integer.compare(placed, state.placed);
+		}
+		
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof State)) {
+				return false;
+			}
+			State state = (State) o;
+			return front == state.front && back == state.back && placed == state.placed;
+		}
+		
+		@Override
+		public int hashCode() {
+			long cells = front | back << Board.NUM_CELLS;
+			return (int) (cells ^ (cells >>> 32)) * 31 + placed;
+		}
+	}
+}
@@ -0,0 +1,102 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+
+/**
+ * The <code>SolutionCacheTest</code> class checks that a SolutionCache opened after a run that
+ * stopped while writing its journal keeps the whole states and can be added to again.
+ * <br>
+ * It writes its files to a new temporary directory, and throws an AssertionError if a check fails.
+ *
+ * @author Jordan Turley
+ * @author Will Edwards
+ */
+public class SolutionCacheTest {
+	private static final int[] PUZZLES = { 1, 2, 3, 44 };
+	
+	public static void main(String[] args) throws IOException {
+		File directory = Files.createTempDirectory("b2b-cache").toFile();
+		try {
+			checkCutOffJournal(directory);
+		} finally {
+			for (File file : directory.listFiles()) {
+				file.delete();
+			}
+			directory.delete();
+		}
+		System.out.println("All solution cache checks passed.");
+	}
+	
+	/**
+	 * Cuts the last state of a journal in half, opens it, adds to it, and opens it again
+	 */
+	private static void checkCutOffJournal(File directory) throws IOException {
+		//A journal is only left behind by a run that stopped, so it is copied before the cache is closed
+		SolutionCache written = SolutionCache.open(new File(directory, "written.b2c"));
+		for (int i1 = 0; i1 < PUZZLES.length - 1; i1++) {
+			written.put(getBoard(PUZZLES[i1]), getBoard(PUZZLES[i1]).solve());
+		}
+		int states = written.size();
+		File cutJournal = new File(directory, "cut.b2c" + SolutionCache.JOURNAL_SUFFIX);
+		copyJournal(new File(directory, "written.b2c" + SolutionCache.JOURNAL_SUFFIX), cutJournal,
+				SolutionCache.RECORD_BYTES / 2);
+		written.close();
+		
+		SolutionCache cut = SolutionCache.open(new File(directory, "cut.b2c"));
+		check(cut.size() == states - 1, "The cut off state was not dropped, " + cut.size() + " states were read.");
+		for (int i1 = 0; i1 < PUZZLES.length - 1; i1++) {
+			checkSolution(cut, PUZZLES[i1]);
+		}
+		
+		//States added after the cut off one have to line up with the ones before it
+		Board last = getBoard(PUZZLES[PUZZLES.length - 1]);
+		cut.put(last, last.solve());
+		int added = cut.size();
+		File reopenedJournal = new File(directory, "reopened.b2c" + SolutionCache.JOURNAL_SUFFIX);
+		copyJournal(cutJournal, reopenedJournal, 0);
+		check(reopenedJournal.length() == SolutionCache.JOURNAL_HEADER_BYTES + (long) added * SolutionCache.RECORD_BYTES,
+				"The journal is " + reopenedJournal.length() + " bytes, which is not a whole number of states.");
+		cut.close();
+		
+		SolutionCache reopened = SolutionCache.open(new File(directory, "reopened.b2c"));
+		check(reopened.size() == added, "The journal had " + added + " states, but " + reopened.size() + " were read.");
+		for (int puzzle : PUZZLES) {
+			checkSolution(reopened, puzzle);
+		}
+		reopened.close();
+	}
+	
+	/**
+	 * Checks that the cache has a solution for a puzzle. SolutionCache.get only returns
+	 * solutions that solve the board, so a damaged one is not found either.
+	 */
+	private static void checkSolution(SolutionCache cache, int puzzle) {
+		check(cache.get(getBoard(puzzle)) != null, "The solution of puzzle " + puzzle + " was not found.");
+	}
+	
+	/**
+	 * Copies a journal, leaving off the given number of bytes at the end
+	 */
+	private static void copyJournal(File from, File to, int cutBytes) throws IOException {
+		Files.copy(from.toPath(), to.toPath());
+		RandomAccessFile file = new RandomAccessFile(to, "rw");
+		try {
+			file.setLength(file.length() - cutBytes);
+		} finally {
+			file.close();
+		}
+	}
+	
+	private static Board getBoard(int puzzle) {
+		Board board = new Board();
+		board.setInitialState(puzzle);
+		return board;
+	}
+	
+	private static void check(boolean condition, String message) {
+		if (!condition) {
+			throw new AssertionError(message);
+		}
+	}
+}
@@ -0,0 +1,254 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The <code>SolutionEnumerator</code> class finds every solution of a Board instead of stopping
+ * at the first one, to count them or to check that a puzzle has only one.
+ * <br>
+ * The search is depth-first with cell-anchored branching, so every set of placements is only
+ * reached once and each solution is found once. With more than one thread, the first SPLIT_DEPTH
+ * levels of the search tree are split into tasks on a ForkJoinPool, one for each child, and the
+ * levels below that are searched on the task's own copy of the board, placing and undoing pieces.
+ * With one thread the whole search runs on the calling thread.
+ * <br>
+ * With symmetry pruning on (the default), solutions that only differ by swapping identical
+ * pieces count once. Solutions that are each other turned around always count separately,
+ * even on a board that is the same turned around, so the count does not depend on which
+ * cell the search anchors on.
+ * <br>
+ * Boards whose subtree has no solutions are put in a NogoodCache that every task shares, so
+ * reaching the same board again with the pieces placed in a different order costs one lookup.
+ *
+ * @author Jordan Turley
+ * @author Will Edwards
+ */
+public class SolutionEnumerator {
+	//Levels of the search tree that are split into their own tasks
+	private static final int SPLIT_DEPTH = 3;
+	
+	/**
+	 * Gets each solution as it is found
+	 */
+	public interface Listener {
+		/**
+		 * Called once for each solution. Calls are never made at the same time,
+		 * so the listener does not need to be thread safe.
+		 * @param actions The moves to the solved board, from the last move back to the first
+		 */
+		void solutionFound(List<Action> actions);
+	}
+	
+	private Board start;
+	private SearchOptions options;
+	private SearchOptions moveOptions;
+	
+	private Listener listener;
+	private long limit;
+	private AtomicLong found;
+	private int splitDepth;
+	private NogoodCache nogoods;
+	
+	/**
+	 * Creates a new enumerator. The board is copied, so it is not changed by searching.
+	 * @param start The board to find the solutions of
+	 * @param options The settings to use: the number of threads, the pruning settings and the stats.
+	 * The algorithm and branching are not used.
+	 */
+	public SolutionEnumerator(Board start, SearchOptions options) {
+		this.start = (Board) start.clone();
+		this.options = options;
+		
+		moveOptions = new SearchOptions();
+		moveOptions.setBranching(SearchOptions.Branching.CELL_ANCHORED);
+		moveOptions.setPruneDeadRegions(options.getPruneDeadRegions());
+		moveOptions.setPruneSymmetry(options.getPruneSymmetry());
+		//Only the mirrors that both cover the anchor cell would be removed, so keep them all
+		moveOptions.setPruneMirrors(false);
+	}
+	
+	/**
+	 * Counts the solutions of the board
+	 * @param limit The most solutions to count, or 0 for no limit. A limit of 2 is enough
+	 * to tell if a puzzle has exactly one solution.
+	 * @return The number of solutions, or the limit if there are at least that many
+	 */
+	public long count(long limit) {
+		return enumerate(null, limit);
+	}
+	
+	/**
+	 * Finds the solutions of the board, passing each one to a listener as it is found
+	 * @param listener The listener to pass the solutions to, or null to only count them
+	 * @param limit The most solutions to find, or 0 for no limit
+	 * @return The number of solutions found
+	 */
+	public long enumerate(Listener listener, long limit) {
+		if (limit < 0) {
+			throw new IllegalArgumentException("The limit cannot be negative.");
+		}
+		this.listener = listener;
+		this.limit = limit == 0 ? Long.MAX_VALUE : limit;
+		found = new AtomicLong();
+		nogoods = NogoodCache.withMemoryLimit(options.getNogoodCacheMegabytes());
+		
+		if (options.getThreads() == 1) {
+			splitDepth = 0;
+			new EnumerateTask((Board) start.clone()).compute();
+		} else {
+			splitDepth = SPLIT_DEPTH;
+			ForkJoinPool pool = new ForkJoinPool(options.getThreads());
+			try {
+				pool.invoke(new EnumerateTask((Board) start.clone()));
+			} finally {
+				pool.shutdown();
+			}
+		}
+		return Math.min(found.get(), this.limit);
+	}
+	
+	/**
+	 * @return True once the limit has been reached, so the tasks can stop early
+	 */
+	private boolean isDone() {
+		return found.get() >= limit;
+	}
+	
+	/**
+	 * Counts a solved board, passing it to the listener if it is under the limit
+	 * @param board The solved board, with its moves on the move stack
+	 */
+	private void report(Board board) {
+		if (found.incrementAndGet() > limit || listener == null) {
+			return;
+		}
+		ArrayList<Action> path = new ArrayList<Action>();
+		for (int i1 = board.getMoveCount() - 1; i1 >= start.getMoveCount(); i1--) {
+			path.add(board.getMove(i1).toAction());
+		}
+		synchronized (listener) {
+			listener.solutionFound(path);
+		}
+	}
+	
+	/**
+	 * Adds the counts from one task to the stats, if they are kept
+	 */
+	private void recordStats(long expanded, long generated, int maxDepth) {
+		if (options.getStats() != null) {
+			options.getStats().record(expanded, generated, maxDepth);
+		}
+	}
+	
+	/**
+	 * Searches below one board. Near the top of the tree each child gets its own task,
+	 * further down the children are searched on the same board.
+	 */
+	private class EnumerateTask extends RecursiveTask<Void> {
+		private static final long serialVersionUID = 1L;
+		
+		private Board board;
+		private long expanded;
+		private long generated;
+		private int maxDepth;
+		
+		/**
+		 * @param board The board to search below, which this task places and undoes pieces on
+		 */
+		EnumerateTask(Board board) {
+			this.board = board;
+		}
+		
+		@Override
+		protected Void compute() {
+			int depth = board.getMoveCount() - start.getMoveCount();
+			if (isDone()) {
+				return null;
+			}
+			if (depth < splitDepth && !board.isSolved()) {
+				ArrayList<EnumerateTask> tasks = new ArrayList<EnumerateTask>();
+				for (Placement placement : board.getMoves(moveOptions)) {
+					Board child = (Board) board.clone();
+					child.place(placement);
+					tasks.add(new EnumerateTask(child));
+				}
+				recordStats(1, tasks.size(), depth);
+				invokeAll(tasks);
+				return null;
+			}
+			
+			expanded = 0;
+			generated = 0;
+			maxDepth = depth;
+			search(depth);
+			recordStats(expanded, generated, maxDepth);
+			return null;
+		}
+		
+		/**
+		 * Searches below the current board depth-first
+		 * @param depth The number of pieces placed since the start
+		 * @return True if a solution was found below the board
+		 */
+		private boolean search(int depth) {
+			if (isDone()) {
+				return false;
+			}
+			if (board.isSolved()) {
+				report(board);
+				return true;
+			}
+			long cells = 0;
+			if (nogoods != null) {
+				cells = board.getSearchCells(moveOptions);
+				if (nogoods.contains(cells, board.getPlacedPieces())) {
+					return false;
+				}
+			}
+			
+			expanded++;
+			maxDepth = Math.max(maxDepth, depth);
+			boolean solved = false;
+			for (Placement placement : board.getMoves(moveOptions)) {
+				board.place(placement);
+				generated++;
+				solved |= search(depth + 1);
+				board.undo();
+			}
+			
+			//A search stopped by the limit may not have tried every placement
+			if (!solved && nogoods != null && !isDone()) {
+				nogoods.add(cells, board.getPlacedPieces());
+			}
+			return solved;
+		}
+	}
+	
+	/**
+	 * Counts the solutions of every puzzle in the default PuzzleCatalog.
+	 * Arguments, all optional: the limit (default 2, enough to check each has one solution)
+	 * and the number of threads (default: one per processor).
+	 */
+	public static void main(String[] args) {
+		long limit = 2;
+		if (args.length > 0) {
+			limit = Long.parseLong(args[0]);
+		}
+		SearchOptions options = new SearchOptions();
+		options.setThreads(Runtime.getRuntime().availableProcessors());
+		if (args.length > 1) {
+			options.setThreads(Integer.parseInt(args[1]));
+		}
+		
+		System.out.println("puzzle,solutions,unique");
+		for (int state : PuzzleCatalog.getDefault().getPuzzleNumbers()) {
+			Board board = new Board();
+			board.setInitialState(state);
+			long count = new SolutionEnumerator(board, options).count(limit);
+			String countStr = count == limit && limit != 0 ? count + "+" : String.valueOf(count);
+			System.out.println(state + "," + countStr + "," + (count == 1));
+		}
+	}
+}
@@ -1,26 +1,50 @@
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
 
 /**
+ * The <code>Solver</code> class solves initial state 44 and prints how long it took.
+ * <br>
+ * Arguments, optional: a SolutionCache file to look the board up in and add the solution to.
+ * Without one, the board is always searched, so the time is the time to search.
+ *
  * @author Jordan Turley
  * @author Will Edwards
  */
 public class Solver {
-	public static void main(String[] args) {
+	public static void main(String[] args) throws IOException {
 		Board board = new Board();
 		board.setInitialState(44);
 		System.out.println(board);
 		board.switchSide();
 		System.out.println(board);
 
+		//With a cache, solutions from earlier runs are kept, so solving the same board again is one lookup
+		SolutionCache cache = null;
+		boolean cached = false;
+		if (args.length > 0) {
+			cache = SolutionCache.open(new File(args[0]));
+			cached = cache.get(board) != null;
+		}
+
 		long beforeTime = System.currentTimeMillis();
 
-		List<Action> actions = board.solve();
+		SearchStats stats = new SearchStats();
+		SearchOptions options = new SearchOptions();
+		options.setStats(stats);
+		options.setSolutionCache(cache);
+		List<Action> actions = board.solve(options);
 
 		long afterTime = System.currentTimeMillis();
 
 		double diff = (double) (afterTime - beforeTime) / 1000.0;
 
 		System.out.println("Solving took: " + diff + " seconds");
+		if (cached) {
+			System.out.println("The solution was in the solution cache.");
+		} else {
+			System.out.println(stats);
+		}
 		System.out.println();
 		System.out.println("Solution:");
 
@@ -28,5 +52,11 @@ public class Solver {
 			System.out.println(a);
 			System.out.println();
 		}
+		if (cache != null) {
+			if (cache.getWriteFailures() > 0) {
+				System.err.println("The solution could not be written to the solution cache journal, it is saved when the cache is closed.");
+			}
+			cache.close();
+		}
 	}
 }
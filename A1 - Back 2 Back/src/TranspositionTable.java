@@ -0,0 +1,224 @@
+/**
+ * The <code>TranspositionTable</code> class is the closed set for A*. It maps a board state to
+ * the lowest path cost the state has been reached with, so a state reached again through a
+ * different order of pieces can be dropped instead of being expanded again.
+ * <br>
+ * States are found by their Zobrist hash, but every entry also keeps the state itself, the
+ * covered cells and the placed pieces, and a state only matches an entry with the same state.
+ * Two states with the same hash are kept apart, so one is never dropped as a duplicate of the
+ * other, which could lose the only solution.
+ * <br>
+ * The table is an array of buckets of BUCKET_SIZE entries. Without a limit, a state whose bucket
+ * is full goes in the next empty entry after it, and the table doubles in size when it is
+ * MAX_LOAD full. With a limit it never grows past it, and a full bucket evicts its entry with the
+ * lowest path cost: those states are nearest the start, so the search has usually moved past
+ * them and is least likely to reach them again.
+ *
+ * @author Jordan Turley
+ * @author Will Edwards
+ */
+public class TranspositionTable {
+	private static final int BUCKET_SIZE = 4;
+	private static final int INITIAL_CAPACITY = 1 << 12;
+	//How full a table without a limit gets before it doubles
+	private static final double MAX_LOAD = 0.75;
+	
+	//Bytes used by one entry, a long key, long cells, short placed pieces and a float cost
+	public static final int BYTES_PER_ENTRY = 22;
+	
+	//Keys are never 0, so 0 marks an empty entry
+	private static final long EMPTY = 0;
+	
+	private long[] keys;
+	private long[] cells;
+	private short[] placed;
+	private float[] costs;
+	private int size;
+	private int maxEntries;
+	private long evictions;
+	
+	/**
+	 * Creates a new table that grows as needed
+	 */
+	public TranspositionTable() {
+		this(0);
+	}
+	
+	/**
+	 * Creates a new table with a limit on the number of entries
+	 * @param maxEntries The most entries to keep, or 0 for no limit
+	 */
+	public TranspositionTable(int maxEntries) {
+		this.maxEntries = maxEntries;
+		int capacity = INITIAL_CAPACITY;
+		if (maxEntries > 0) {
+			//Round the limit down to a power of two, so it is never exceeded
+			capacity = Math.max(BUCKET_SIZE, Integer.highestOneBit(maxEntries));
+		}
+		keys = new long[capacity];
+		cells = new long[capacity];
+		placed = new short[capacity];
+		costs = new float[capacity];
+		size = 0;
+		evictions = 0;
+	}
+	
+	/**
+	 * Creates a new table that uses at most the given amount of memory
+	 * @param megabytes The memory limit in megabytes, or 0 for no limit
+	 * @return The new table
+	 */
+	public static TranspositionTable withMemoryLimit(int megabytes) {
+		if (megabytes <= 0) {
+			return new TranspositionTable();
+		}
+		long entries = (long) megabytes * 1024 * 1024 / BYTES_PER_ENTRY;
+		return new TranspositionTable((int) Math.min(entries, 1 << 30));
+	}
+	
+	/**
+	 * Records that a state was reached with a path cost, if it is lower than any cost seen before
+	 * @param key The search key of the state, see Board.getSearchKey
+	 * @param stateCells The covered cells of the state, see Board.getSearchCells
+	 * @param placedPieces The placed pieces of the state, one bit per piece
+	 * @param cost The path cost the state was reached with
+	 * @return True if this is the lowest cost seen for the state, false if it is a duplicate
+	 */
+	public boolean record(long key, long stateCells, int placedPieces, double cost) {
+		key = fixKey(key);
+		int bucket = bucketOf(key, keys.length);
+		int victim = -1;
+		for (int i1 = 0; i1 < getProbes(); i1++) {
+			int entry = (bucket + i1) & (keys.length - 1);
+			if (matches(entry, key, stateCells, placedPieces)) {
+				if (costs[entry] <= cost) {
+					return false;
+				}
+				costs[entry] = (float) cost;
+				return true;
+			}
+			if (keys[entry] == EMPTY) {
+				set(entry, key, stateCells, placedPieces, (float) cost);
+				size++;
+				if (maxEntries == 0 && size > keys.length * MAX_LOAD) {
+					grow();
+				}
+				return true;
+			}
+			if (victim == -1 || costs[entry] < costs[victim]) {
+				victim = entry;
+			}
+		}
+		
+		//The bucket is full, which only happens with a limit
+		set(victim, key, stateCells, placedPieces, (float) cost);
+		evictions++;
+		return true;
+	}
+	
+	/**
+	 * Gets the lowest path cost a state has been recorded with
+	 * @param key The search key of the state, see Board.getSearchKey
+	 * @param stateCells The covered cells of the state, see Board.getSearchCells
+	 * @param placedPieces The placed pieces of the state, one bit per piece
+	 * @return The cost, or positive infinity if the state is not in the table
+	 */
+	public double getCost(long key, long stateCells, int placedPieces) {
+		key = fixKey(key);
+		int bucket = bucketOf(key, keys.length);
+		for (int i1 = 0; i1 < getProbes(); i1++) {
+			int entry = (bucket + i1) & (keys.length - 1);
+			if (matches(entry, key, stateCells, placedPieces)) {
+				return costs[entry];
+			}
+			if (keys[entry] == EMPTY) {
+				break;
+			}
+		}
+		return Double.POSITIVE_INFINITY;
+	}
+	
+	/**
+	 * Checks if an entry holds a state
+	 */
+	private boolean matches(int entry, long key, long stateCells, int placedPieces) {
+		return keys[entry] == key && cells[entry] == stateCells && placed[entry] == (short) placedPieces;
+	}
+	
+	/**
+	 * Puts a state and its cost in an entry
+	 */
+	private void set(int entry, long key, long stateCells, int placedPieces, float cost) {
+		keys[entry] = key;
+		cells[entry] = stateCells;
+		placed[entry] = (short) placedPieces;
+		costs[entry] = cost;
+	}
+	
+	/**
+	 * @return How many entries from the start of a bucket a state can be in. With a limit it is
+	 * always in its bucket, without one it can be anywhere after it.
+	 */
+	private int getProbes() {
+		return maxEntries == 0 ? keys.length : BUCKET_SIZE;
+	}
+	
+	/**
+	 * @return The number of states in the table
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * @return The number of states that were evicted to stay under the limit
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+	
+	/**
+	 * Doubles the size of the table and puts every entry back in
+	 */
+	private void grow() {
+		long[] oldKeys = keys;
+		long[] oldCells = cells;
+		short[] oldPlaced = placed;
+		float[] oldCosts = costs;
+		keys = new long[oldKeys.length * 2];
+		cells = new long[oldKeys.length * 2];
+		placed = new short[oldKeys.length * 2];
+		costs = new float[oldKeys.length * 2];
+		for (int i1 = 0; i1 < oldKeys.length; i1++) {
+			if (oldKeys[i1] != EMPTY) {
+				insertForGrow(oldKeys[i1], oldCells[i1], oldPlaced[i1], oldCosts[i1]);
+			}
+		}
+	}
+	
+	/**
+	 * Puts an entry in the next empty entry from its bucket while the table is growing
+	 */
+	private void insertForGrow(long key, long stateCells, short placedPieces, float cost) {
+		int entry = bucketOf(key, keys.length);
+		while (keys[entry] != EMPTY) {
+			entry = (entry + 1) & (keys.length - 1);
+		}
+		set(entry, key, stateCells, placedPieces, cost);
+	}
+	
+	/**
+	 * Gets the first index of the bucket a key belongs in
+	 */
+	private static int bucketOf(long key, int capacity) {
+		int hash = (int) (key ^ (key >>> 32));
+		return hash & (capacity - 1) & ~(BUCKET_SIZE - 1);
+	}
+	
+	/**
+	 * Makes sure a key is never the empty marker
+	 */
+	private static long fixKey(long key) {
+		return key == EMPTY ? 1 : key;
+	}
+}
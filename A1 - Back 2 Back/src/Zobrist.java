@@ -0,0 +1,71 @@
+import java.util.Random;
+
+/**
+ * The <code>Zobrist</code> class holds the random keys used to hash a board state.
+ * A state is hashed by XORing the key of every covered front cell, every covered back cell
+ * and every placed piece, so placing a piece only needs one XOR with the keys it adds.
+ *
+ * @author Jordan Turley
+ * @author Will Edwards
+ */
+public class Zobrist {
+	private static final long SEED = 0x2B2B2B2BL;
+	
+	private static final long[] FRONT_KEYS = new long[Board.NUM_CELLS];
+	private static final long[] BACK_KEYS = new long[Board.NUM_CELLS];
+	private static final long[] PIECE_KEYS = new long[Piece.NUM_PIECES];
+	static {
+		Random random = new Random(SEED);
+		for (int i1 = 0; i1 < Board.NUM_CELLS; i1++) {
+			FRONT_KEYS[i1] = random.nextLong();
+			BACK_KEYS[i1] = random.nextLong();
+		}
+		for (int i1 = 0; i1 < Piece.NUM_PIECES; i1++) {
+			PIECE_KEYS[i1] = random.nextLong();
+		}
+	}
+	
+	/**
+	 * Hashes a board state
+	 * @param frontMask The cells covered on the front
+	 * @param backMask The cells covered on the back
+	 * @param placedPieces One bit for each piece that has been placed
+	 * @return The Zobrist hash of the state
+	 */
+	public static long hash(long frontMask, long backMask, int placedPieces) {
+		return hashCells(frontMask, backMask) ^ hashPieces(placedPieces);
+	}
+	
+	/**
+	 * Hashes the covered cells of a state
+	 * @param frontMask The cells covered on the front
+	 * @param backMask The cells covered on the back
+	 * @return The XOR of the keys for every covered cell
+	 */
+	public static long hashCells(long frontMask, long backMask) {
+		long hash = 0;
+		while (frontMask != 0) {
+			hash ^= FRONT_KEYS[Long.numberOfTrailingZeros(frontMask)];
+			frontMask &= frontMask - 1;
+		}
+		while (backMask != 0) {
+			hash ^= BACK_KEYS[Long.numberOfTrailingZeros(backMask)];
+			backMask &= backMask - 1;
+		}
+		return hash;
+	}
+	
+	/**
+	 * Hashes the placed pieces of a state
+	 * @param placedPieces One bit for each piece that has been placed
+	 * @return The XOR of the keys for every placed piece
+	 */
+	public static long hashPieces(int placedPieces) {
+		long hash = 0;
+		while (placedPieces != 0) {
+			hash ^= PIECE_KEYS[Integer.numberOfTrailingZeros(placedPieces)];
+			placedPieces &= placedPieces - 1;
+		}
+		return hash;
+	}
+}